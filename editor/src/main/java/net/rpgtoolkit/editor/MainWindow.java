@@ -12,11 +12,13 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.GridLayout;
-import java.awt.Rectangle;
 import java.beans.PropertyVetoException;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.swing.JDesktopPane;
 import javax.swing.JFileChooser;
@@ -43,8 +45,10 @@ import net.rpgtoolkit.common.assets.TileSet;
 import net.rpgtoolkit.editor.editors.AnimationEditor;
 import net.rpgtoolkit.editor.editors.BoardEditor;
 import net.rpgtoolkit.editor.editors.board.AbstractBrush;
+import net.rpgtoolkit.editor.editors.board.BrushShape;
 import net.rpgtoolkit.editor.editors.board.ShapeBrush;
 import net.rpgtoolkit.editor.editors.board.BoardVectorBrush;
+import net.rpgtoolkit.editor.editors.board.StampBrush;
 import net.rpgtoolkit.editor.editors.ProjectEditor;
 import net.rpgtoolkit.editor.ui.listeners.TileSelectionListener;
 import net.rpgtoolkit.editor.editors.board.NewBoardDialog;
@@ -112,6 +116,8 @@ public class MainWindow extends JFrame implements InternalFrameListener {
     private boolean snapToGrid;
     private AbstractBrush currentBrush;
     private Tile lastSelectedTile;
+    private BrushShape brushShape = BrushShape.SQUARE;
+    private int brushSize = 1;
 
     // Listeners.
     private final TileSetSelectionListener tileSetSelectionListener;
@@ -151,7 +157,7 @@ public class MainWindow extends JFrame implements InternalFrameListener {
         toolBar = new MainToolBar();
 
         currentBrush = new ShapeBrush();
-        ((ShapeBrush) currentBrush).makeRectangleBrush(new Rectangle(0, 0, 1, 1));
+        ((ShapeBrush) currentBrush).makeBrush(brushShape, brushSize);
 
         lastSelectedTile = new Tile();
 
@@ -220,6 +226,42 @@ public class MainWindow extends JFrame implements InternalFrameListener {
         this.currentBrush = brush;
     }
 
+    public BrushShape getBrushShape() {
+        return brushShape;
+    }
+
+    /**
+     * Sets the shape of the pencil and eraser, the current brush is reshaped
+     * if it is one of them.
+     *
+     * @param brushShape
+     */
+    public void setBrushShape(BrushShape brushShape) {
+        this.brushShape = brushShape;
+        updateStampBrush();
+    }
+
+    public int getBrushSize() {
+        return brushSize;
+    }
+
+    /**
+     * Sets the size of the pencil and eraser, the current brush is resized if
+     * it is one of them.
+     *
+     * @param brushSize Width and height in tiles.
+     */
+    public void setBrushSize(int brushSize) {
+        this.brushSize = brushSize;
+        updateStampBrush();
+    }
+
+    private void updateStampBrush() {
+        if (currentBrush instanceof StampBrush) {
+            ((StampBrush) currentBrush).makeBrush(brushShape, brushSize);
+        }
+    }
+
     public Tile getLastSelectedTile() {
         return this.lastSelectedTile;
     }
@@ -357,6 +399,10 @@ public class MainWindow extends JFrame implements InternalFrameListener {
             editorMap.remove(window.getAsset().getFile());
         }
 
+        if (window instanceof BoardEditor) {
+            ((BoardEditor) window).getBoardView().dispose();
+        }
+
         desktopPane.remove(window);
     }
 
@@ -382,6 +428,7 @@ public class MainWindow extends JFrame implements InternalFrameListener {
         } else if (window instanceof BoardEditor) {
             BoardEditor editor = (BoardEditor) window;
             this.layerPanel.setBoardView(editor.getBoardView());
+            menuBar.getEditMenu().setJournal(editor.getBoardView().getJournal());
 
             if (editor.getSelectedObject() != null) {
                 this.propertiesPanel.setModel(editor.getSelectedObject());
@@ -415,6 +462,8 @@ public class MainWindow extends JFrame implements InternalFrameListener {
                 layerPanel.clearTable();
             }
 
+            menuBar.getEditMenu().setJournal(null);
+
             if (propertiesPanel.getModel() == editor.getSelectedObject()
                     || propertiesPanel.getModel() == editor.getBoard()) {
                 propertiesPanel.setModel(null);
@@ -602,14 +651,16 @@ public class MainWindow extends JFrame implements InternalFrameListener {
                 Board board = (Board) handle.getAsset();
 
                 // Setup the TileSets used on this Board.
+                List<File> files = new ArrayList<>();
                 for (TileSet tileSet : board.getTileSets().values()) {
                     String path = System.getProperty("project.path")
                             + File.separator
                             + EditorFileManager.getTypeSubdirectory(TileSet.class)
                             + File.separator
                             + tileSet.getName();
-                    openTileset(new File(path));
+                    files.add(new File(path));
                 }
+                openTilesets(files);
 
                 board.loadTiles();
 
@@ -781,22 +832,54 @@ public class MainWindow extends JFrame implements InternalFrameListener {
     }
 
     public void openTileset(File file) {
-        LOGGER.info("Opening {} file=[{}].", TileSet.class.getSimpleName(), file);
+        openTilesets(Collections.singletonList(file));
+    }
 
-        try {
-            TileSet tileSet;
+    /**
+     * Opens several tile sets at once, the images of any that are not already
+     * cached are decoded concurrently in the background. The tiles themselves
+     * exist as soon as this returns, they are drawn as placeholders until
+     * their tile set has finished loading. A tile set whose images cannot be
+     * read gets no tab, the others are still opened, and it is tried again
+     * the next time it is opened.
+     *
+     * @param files
+     */
+    public void openTilesets(List<File> files) {
+        LOGGER.info("Opening {} files=[{}].", TileSet.class.getSimpleName(), files);
+
+        List<TileSet> tileSets = new ArrayList<>();
+        List<TileSet> unloaded = new ArrayList<>();
+        for (File file : files) {
             String key = file.getName();
             if (!TileSetCache.contains(key)) {
-                tileSet = TileSetCache.addTileSet(key);
-                tileSet = TileSetUtil.load(tileSet);
+                TileSet tileSet = TileSetCache.addTileSet(key);
+                unloaded.add(tileSet);
+                tileSets.add(tileSet);
             } else {
-                tileSet = TileSetCache.getTileSet(key);
+                TileSet tileSet = TileSetCache.getTileSet(key);
+                if (TileSetUtil.isFailed(tileSet)) {
+                    unloaded.add(tileSet);
+                }
+                tileSets.add(tileSet);
+            }
+        }
+
+        TileSetUtil.loadAsync(unloaded);
+
+        boolean opened = false;
+        for (TileSet tileSet : tileSets) {
+            if (TileSetUtil.isFailed(tileSet)) {
+                LOGGER.error("Failed to open {} name=[{}].", TileSet.class.getSimpleName(), tileSet.getName());
+                continue;
             }
 
             tileSetPanel.addTileSet(tileSet);
+            opened = true;
+        }
+
+        if (opened) {
             upperTabbedPane.setSelectedComponent(tileSetPanel);
-        } catch (IOException ex) {
-            LOGGER.error("Failed to open {} file=[{}].", TileSet.class.getSimpleName(), file, ex);
         }
     }
 
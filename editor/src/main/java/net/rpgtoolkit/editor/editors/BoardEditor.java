@@ -12,11 +12,16 @@ import net.rpgtoolkit.editor.editors.board.BoardMouseAdapter;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.io.File;
+import java.util.function.Function;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
+import javax.swing.Timer;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.common.assets.Board;
 import net.rpgtoolkit.editor.editors.board.AbstractBrush;
+import net.rpgtoolkit.editor.editors.board.BoardRegionEvent;
+import net.rpgtoolkit.editor.editors.board.TileBlock;
+import net.rpgtoolkit.editor.editors.board.TileSelection;
 import net.rpgtoolkit.common.Selectable;
 import net.rpgtoolkit.common.assets.AbstractAsset;
 import net.rpgtoolkit.common.assets.AssetDescriptor;
@@ -26,6 +31,7 @@ import net.rpgtoolkit.common.assets.events.BoardChangedEvent;
 import net.rpgtoolkit.common.assets.listeners.BoardChangeListener;
 import net.rpgtoolkit.editor.MainWindow;
 import net.rpgtoolkit.editor.ui.AssetEditorWindow;
+import net.rpgtoolkit.editor.ui.listeners.BoardRegionListener;
 import net.rpgtoolkit.editor.ui.resources.Icons;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +42,8 @@ import org.slf4j.LoggerFactory;
  * @author Geoff Wilson
  * @author Joshua Michael Daly
  */
-public class BoardEditor extends AssetEditorWindow implements BoardChangeListener {
+public class BoardEditor extends AssetEditorWindow implements BoardChangeListener,
+        BoardRegionListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardEditor.class);
 
@@ -53,8 +60,24 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
 
     private Tile[][] selectedTiles;
 
+    /**
+     * Tiles copied or cut from any open board.
+     */
+    private static TileBlock clipboard;
+
     private Selectable selectedObject;
 
+    /**
+     * Milliseconds between repaints while a stroke is being dragged.
+     */
+    private static final int STROKE_REPAINT_INTERVAL = 16;
+
+    private AbstractBrush strokeBrush;
+    private Point strokePoint;
+    private int strokeLayer;
+    private Rectangle strokeRegion;
+    private Timer strokeTimer;
+
     /**
      * Default Constructor.
      */
@@ -161,6 +184,30 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
         cursorLocation = location;
     }
 
+    /**
+     * Moves the cursor and repaints only the areas it and the brush preview
+     * covered before and after the move.
+     *
+     * @param tileLocation The new cursor location in tiles.
+     * @param location The new cursor location in board pixels.
+     */
+    public void updateCursor(Point tileLocation, Point location) {
+        AbstractBrush brush = MainWindow.getInstance().getCurrentBrush();
+
+        repaintCursor(brush);
+        cursorTileLocation = tileLocation;
+        cursorLocation = location;
+        repaintCursor(brush);
+    }
+
+    private void repaintCursor(AbstractBrush brush) {
+        boardView.repaintBoardPixels(boardView.getCursorBounds());
+
+        if (brush != null) {
+            boardView.repaintBoardPixels(brush.getPreviewBounds(boardView));
+        }
+    }
+
     /**
      *
      * @return
@@ -189,13 +236,40 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
     }
 
     /**
+     * Gets the tiles under the selection, unless tiles have been set they are
+     * copied out of the layer each time they are asked for. Every call packs
+     * the whole region and builds a new array, so callers that only read or
+     * edit the tiles should use {@link #getTileSelection()} instead.
      *
-     * @return
+     * @return A copy of the selected tiles, or null if nothing is selected.
      */
     public Tile[][] getSelectedTiles() {
+        if (selectedTiles == null) {
+            TileSelection tileSelection = getTileSelection();
+
+            if (tileSelection != null) {
+                return tileSelection.copy().toTiles();
+            }
+        }
+
         return selectedTiles;
     }
 
+    /**
+     * Gets a view of the selected region of the current layer, no tiles are
+     * copied.
+     *
+     * @return The selection, or null if nothing is selected.
+     */
+    public TileSelection getTileSelection() {
+        if (selection == null || boardView.getCurrentSelectedLayer() == null) {
+            return null;
+        }
+
+        return new TileSelection(boardView.getCurrentSelectedLayer(),
+                getSelectionExpaned());
+    }
+
     /**
      *
      * @param tiles
@@ -225,6 +299,9 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
 
         MainWindow.getInstance().getPropertiesPanel().setModel(
                 selectedObject);
+
+        // Selected sprites are outlined in the composited board.
+        boardView.invalidateComposite();
         boardView.repaint();
     }
 
@@ -250,33 +327,11 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
      */
     @Override
     public void save() throws Exception {
-        // TODO: Keep track of TileSets as they get added and removed
-        //       rather than performing this slow bulk update.
-        for (BoardLayer boardLayer : board.getLayers()) {
-            Tile[][] layerTiles = boardLayer.getTiles();
-
-            int width = board.getWidth();
-            int height = board.getHeight();
-            int count = width * height;
-            int x = 0;
-            int y = 0;
-            for (int j = 0; j < count; j++) {
-                TileSet tileSet = layerTiles[x][y].getTileSet();
-
-                if (tileSet != null) {
-                    if (!board.getTileSets().containsKey(tileSet.getName())) {
-                        board.getTileSets().put(tileSet.getName(), tileSet);
-                    }
-                }
-
-                x++;
-                if (x == width) {
-                    x = 0;
-                    y++;
-                    if (y == height) {
-                        break;
-                    }
-                }
+        // The layer views count the tiles placed from each tile set as they
+        // are set, so only the tile sets in use are visited here.
+        for (TileSet tileSet : boardView.getTileSetUsage().keySet()) {
+            if (!board.getTileSets().containsKey(tileSet.getName())) {
+                board.getTileSets().put(tileSet.getName(), tileSet);
             }
         }
 
@@ -303,8 +358,17 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
      * @param rectangle
      */
     public void setSelection(Rectangle rectangle) {
+        repaintSelection();
         selection = rectangle;
-        boardView.repaint();
+        selectedTiles = null;
+        repaintSelection();
+    }
+
+    private void repaintSelection() {
+        if (selection != null) {
+            boardView.repaintTiles(new Rectangle(selection.x, selection.y,
+                    selection.width + 1, selection.height + 1));
+        }
     }
 
     /**
@@ -334,16 +398,281 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
                 return;
             }
 
-            brush.startPaint(boardView, boardView.
-                    getCurrentSelectedLayer().getLayer().getNumber());
-            brush.doPaint(point.x, point.y, selection);
-            brush.endPaint();
+            int layer = boardView.getCurrentSelectedLayer().getLayer().getNumber();
+            Rectangle changed;
+
+            boardView.getJournal().beginStroke();
+            try {
+                brush.startPaint(boardView, layer);
+                changed = brush.doPaint(point.x, point.y, selection);
+                brush.endPaint();
+            } finally {
+                boardView.getJournal().endStroke();
+            }
+
+            if (changed != null && !brush.isPixelBased()) {
+                boardView.getChangeBus().postLayers(layer,
+                        brush.getAffectedLayers(), changed,
+                        BoardRegionEvent.Change.TILES);
+            }
         } catch (Exception ex) {
             LOGGER.error("Failed to paint on the board brush=[{}], point=[{}], selection=[{}]",
                     brush, point, selection, ex);
         }
     }
 
+    /**
+     * Starts a stroke that stays open until {@link #endStroke()}, used while
+     * a brush is dragged across the board. The changes are repainted at most
+     * once per frame and are undone as a single edit.
+     *
+     * @param brush The brush to paint with.
+     * @param point The first tile to paint.
+     * @param selection The current selection, only used for the first tile.
+     */
+    public void beginStroke(AbstractBrush brush, Point point,
+            Rectangle selection) {
+        if (brush == null) {
+            return;
+        }
+        if (strokeBrush != null) {
+            endStroke();
+        }
+
+        strokeBrush = brush;
+        strokePoint = point;
+        strokeLayer = boardView.getCurrentSelectedLayer().getLayer().getNumber();
+
+        boardView.getJournal().beginStroke();
+        brush.startPaint(boardView, strokeLayer);
+        paintStroke(point, selection);
+    }
+
+    /**
+     * Continues the current stroke to a new tile, every tile on the line from
+     * the previous one is painted so that fast drags leave no gaps.
+     *
+     * @param point The tile the cursor was dragged to.
+     */
+    public void continueStroke(Point point) {
+        if (strokeBrush == null || point.equals(strokePoint)) {
+            return;
+        }
+
+        // Bresenham's line, the previous tile has already been painted.
+        int x = strokePoint.x;
+        int y = strokePoint.y;
+        int dx = Math.abs(point.x - x);
+        int dy = -Math.abs(point.y - y);
+        int stepX = x < point.x ? 1 : -1;
+        int stepY = y < point.y ? 1 : -1;
+        int error = dx + dy;
+
+        while (x != point.x || y != point.y) {
+            int error2 = 2 * error;
+
+            if (error2 >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (error2 <= dx) {
+                error += dx;
+                y += stepY;
+            }
+
+            paintStroke(new Point(x, y), null);
+        }
+
+        strokePoint = point;
+
+        if (!strokeTimer.isRunning()) {
+            strokeTimer.start();
+        }
+    }
+
+    /**
+     * Finishes the current stroke and repaints anything still pending.
+     */
+    public void endStroke() {
+        if (strokeBrush == null) {
+            return;
+        }
+
+        strokeBrush.endPaint();
+        boardView.getJournal().endStroke();
+
+        strokeTimer.stop();
+        flushStroke();
+
+        strokeBrush = null;
+        strokePoint = null;
+    }
+
+    private void paintStroke(Point point, Rectangle selection) {
+        try {
+            Rectangle changed = strokeBrush.doPaint(point.x, point.y, selection);
+
+            if (changed != null && !strokeBrush.isPixelBased()) {
+                if (strokeRegion == null) {
+                    strokeRegion = changed;
+                } else {
+                    strokeRegion.add(changed);
+                }
+            }
+        } catch (Exception ex) {
+            LOGGER.error("Failed to paint on the board brush=[{}], point=[{}], selection=[{}]",
+                    strokeBrush, point, selection, ex);
+        }
+    }
+
+    private void flushStroke() {
+        if (strokeRegion == null || strokeBrush == null) {
+            return;
+        }
+
+        boardView.getChangeBus().postLayers(strokeLayer,
+                strokeBrush.getAffectedLayers(), strokeRegion,
+                BoardRegionEvent.Change.TILES);
+        strokeRegion = null;
+    }
+
+    /**
+     * Reverts the most recent edit made to the board.
+     */
+    public void undo() {
+        // A stroke still being dragged would otherwise paint outside of the journal.
+        endStroke();
+
+        if (boardView.getJournal().undo()) {
+            setNeedSave(true);
+        }
+    }
+
+    /**
+     * Applies the most recently undone edit to the board again.
+     */
+    public void redo() {
+        endStroke();
+
+        if (boardView.getJournal().redo()) {
+            setNeedSave(true);
+        }
+    }
+
+    /**
+     * Copies the selected tiles to the clipboard.
+     */
+    public void copySelection() {
+        TileSelection tileSelection = getTileSelection();
+
+        if (tileSelection != null && !tileSelection.isEmpty()) {
+            clipboard = tileSelection.copy();
+        }
+    }
+
+    /**
+     * Copies the selected tiles to the clipboard and clears them.
+     */
+    public void cutSelection() {
+        copySelection();
+        editSelection(TileSelection::clear);
+    }
+
+    /**
+     * Pastes the clipboard at the top left corner of the selection, or of the
+     * board if nothing is selected.
+     */
+    public void pasteSelection() {
+        if (clipboard == null) {
+            return;
+        }
+
+        if (selection == null) {
+            setSelection(new Rectangle(0, 0, 0, 0));
+        }
+
+        TileBlock block = clipboard;
+        editSelection(tileSelection -> tileSelection.paste(block,
+                selection.x, selection.y));
+    }
+
+    /**
+     * Selects every tile of the board.
+     */
+    public void selectAll() {
+        setSelection(new Rectangle(0, 0, board.getWidth() - 1,
+                board.getHeight() - 1));
+    }
+
+    /**
+     *
+     * @param tile The tile to fill the selection with, null to clear it.
+     */
+    public void fillSelection(Tile tile) {
+        editSelection(tileSelection -> tileSelection.fill(tile));
+    }
+
+    /**
+     *
+     * @param dx Distance to move across in tiles.
+     * @param dy Distance to move down in tiles.
+     */
+    public void moveSelection(int dx, int dy) {
+        editSelection(tileSelection -> tileSelection.move(dx, dy));
+    }
+
+    /**
+     *
+     * @param horizontal Mirror from left to right, otherwise top to bottom.
+     */
+    public void flipSelection(boolean horizontal) {
+        if (horizontal) {
+            editSelection(TileSelection::flipHorizontal);
+        } else {
+            editSelection(TileSelection::flipVertical);
+        }
+    }
+
+    /**
+     * Turns the selected tiles a quarter clockwise.
+     */
+    public void rotateSelection() {
+        editSelection(TileSelection::rotate);
+    }
+
+    /**
+     * Applies a bulk edit to the selection as a single undoable edit, the
+     * selection then follows the tiles if they moved.
+     *
+     * @param edit The edit, returns the changed region.
+     */
+    private void editSelection(Function<TileSelection, Rectangle> edit) {
+        TileSelection tileSelection = getTileSelection();
+
+        if (tileSelection == null || tileSelection.isEmpty()) {
+            return;
+        }
+
+        int layer = tileSelection.getLayer().getLayer().getNumber();
+        Rectangle changed;
+
+        boardView.getJournal().beginStroke();
+        try {
+            changed = edit.apply(tileSelection);
+        } finally {
+            boardView.getJournal().endStroke();
+        }
+
+        Rectangle region = tileSelection.getRegion();
+        setSelection(new Rectangle(region.x, region.y,
+                Math.max(0, region.width - 1), Math.max(0, region.height - 1)));
+
+        if (changed != null && !changed.isEmpty()) {
+            boardView.getChangeBus().post(layer, changed,
+                    BoardRegionEvent.Change.TILES);
+        }
+    }
+
     /**
      *
      * @param rectangle
@@ -397,6 +726,15 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
         setNeedSave(true);
     }
 
+    @Override
+    public void boardRegionChanged(BoardRegionEvent e) {
+        // How the layers are shown in the editor is not saved with the board.
+        if (e.contains(BoardRegionEvent.Change.TILES)
+                || e.contains(BoardRegionEvent.Change.OVERLAY)) {
+            setNeedSave(true);
+        }
+    }
+
     @Override
     public void boardLayerAdded(BoardChangedEvent e) {
         setNeedSave(true);
@@ -434,16 +772,20 @@ public class BoardEditor extends AssetEditorWindow implements BoardChangeListene
 
     private void init(Board board, String fileName) {
         boardView = new BoardView2D(this, board);
+        boardView.getChangeBus().addBoardRegionListener(this);
         boardView.addMouseListener(boardMouseAdapter);
         boardView.addMouseMotionListener(boardMouseAdapter);
 
         scrollPane = new JScrollPane(boardView);
-        scrollPane.getViewport().setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
+        scrollPane.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
 
         cursorTileLocation = new Point(0, 0);
         cursorLocation = new Point(0, 0);
 
+        strokeTimer = new Timer(STROKE_REPAINT_INTERVAL, e -> flushStroke());
+        strokeTimer.setRepeats(false);
+
         setTitle(fileName);
         add(scrollPane);
         pack();
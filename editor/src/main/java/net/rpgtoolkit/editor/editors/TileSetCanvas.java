@@ -30,6 +30,8 @@ import javax.swing.Scrollable;
 
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.common.assets.TileSet;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlas;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlasCache;
 import net.rpgtoolkit.editor.utilities.GuiHelper;
 
 /**
@@ -113,6 +115,22 @@ public final class TileSetCanvas extends JPanel implements Scrollable {
         );
     }
 
+    /**
+     * Holds a reference to the tile set while this canvas is showing, so its
+     * pixels are not evicted from the TileSetAtlasCache.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        TileSetAtlasCache.acquire(tileSet);
+    }
+
+    @Override
+    public void removeNotify() {
+        TileSetAtlasCache.release(tileSet);
+        super.removeNotify();
+    }
+
     /**
      *
      * @param listener
@@ -285,7 +303,7 @@ public final class TileSetCanvas extends JPanel implements Scrollable {
         int i = 0;
 
         for (Tile tile : tileSet.getTiles()) {
-            g2d.drawImage(tile.getTileAsImage(), x, y, this);
+            TileSetAtlas.drawTile(g2d, tile, x, y);
 
             // Update coordinates to draw at.
             x += tileSet.getTileWidth();
@@ -18,15 +18,25 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.swing.JPanel;
 
 import net.rpgtoolkit.common.assets.listeners.BoardChangeListener;
 import net.rpgtoolkit.common.assets.events.BoardChangedEvent;
 import net.rpgtoolkit.common.assets.BoardLayer;
 import net.rpgtoolkit.common.assets.Board;
+import net.rpgtoolkit.common.assets.BoardSprite;
+import net.rpgtoolkit.common.assets.TileSet;
 import net.rpgtoolkit.common.assets.TilePixelOutOfRangeException;
+import net.rpgtoolkit.common.utilities.TileSetCache;
 import net.rpgtoolkit.editor.editors.BoardEditor;
+import net.rpgtoolkit.editor.editors.tileset.TileSetLoadEvent;
+import net.rpgtoolkit.editor.editors.tileset.TileSetUtil;
+import net.rpgtoolkit.editor.ui.listeners.BoardRegionListener;
+import net.rpgtoolkit.editor.ui.listeners.TileSetLoadListener;
 import net.rpgtoolkit.editor.ui.resources.Icons;
 
 /**
@@ -40,7 +50,8 @@ import net.rpgtoolkit.editor.ui.resources.Icons;
  * @author Joshua Michael Daly
  */
 public abstract class AbstractBoardView extends JPanel implements
-        MultiLayerContainer, BoardChangeListener {
+        MultiLayerContainer, BoardChangeListener, TileSetLoadListener,
+        BoardRegionListener {
 
     // Constants
     private static final int ZOOM_NORMALSIZE = 5;
@@ -71,9 +82,31 @@ public abstract class AbstractBoardView extends JPanel implements
     protected Board board;
 
     /**
-     * A BufferedImage which this view can be drawn to.
+     * Chunks of the composited board whose layers and sprites need to be drawn
+     * again, uses the same chunk size as the layer render caches.
      */
-    protected BufferedImage bufferedImage;
+    private boolean[][] compositeDirty;
+
+    /**
+     * Undo history of the edits made to the board.
+     */
+    private BoardJournal journal;
+    /**
+     * Carries the changes made to the board by the editor.
+     */
+    private BoardChangeBus changeBus;
+    /**
+     * The frames the sprites on the board are drawn with.
+     */
+    private SpritePreviewCache spritePreviews;
+    /**
+     * The layer being cloned by {@link #cloneLayer(int)}, its tiles are shared
+     * with the new layer rather than packed again.
+     */
+    private BoardLayerView cloneSource;
+    private int cloneIndex;
+    private int compositeColumns;
+    private int compositeRows;
 
     /**
      * The parent BoardEditor for this BoardView.
@@ -301,6 +334,24 @@ public abstract class AbstractBoardView extends JPanel implements
         return pixelBounds;
     }
 
+    /**
+     * Gets the width of the board in pixels, ignoring the zoom.
+     *
+     * @return The board width in pixels.
+     */
+    public int getPixelWidth() {
+        return board.getWidth() * board.getTileWidth();
+    }
+
+    /**
+     * Gets the height of the board in pixels, ignoring the zoom.
+     *
+     * @return The board height in pixels.
+     */
+    public int getPixelHeight() {
+        return board.getHeight() * board.getTileHeight();
+    }
+
     /**
      * Returns the layer at the specified ArrayList index.
      *
@@ -326,6 +377,7 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     @Override
     public void setLayer(int index, BoardLayerView layer) {
+        layer.setParentContainer(this);
         layers.set(index, layer);
     }
 
@@ -375,6 +427,191 @@ public abstract class AbstractBoardView extends JPanel implements
         currentSelectedLayer = layer;
     }
 
+    /**
+     * Invalidates the cached rendering of a tile region on a range of layers,
+     * used after a brush has painted onto the board.
+     *
+     * @param layer The first layer that was painted on.
+     * @param count The number of layers, starting at <code>layer</code>.
+     * @param region The changed region in tile coordinates.
+     */
+    public void invalidateLayers(int layer, int count, Rectangle region) {
+        for (int i = layer; i < layer + count; i++) {
+            BoardLayerView layerView = getLayer(i);
+
+            if (layerView != null) {
+                layerView.invalidate(region);
+            }
+        }
+
+        invalidateComposite(region);
+    }
+
+    /**
+     * Marks the composited board pixels of a tile region as out of date, the
+     * layers and sprites in that region are drawn again on the next repaint.
+     *
+     * @param region The changed region in tile coordinates.
+     */
+    public void invalidateComposite(Rectangle region) {
+        if (region == null) {
+            return;
+        }
+
+        int size = LayerRenderCache.CHUNK_SIZE;
+        int startX = Math.max(0, region.x / size);
+        int startY = Math.max(0, region.y / size);
+        int endX = Math.min(compositeColumns - 1,
+                (region.x + Math.max(region.width, 1) - 1) / size);
+        int endY = Math.min(compositeRows - 1,
+                (region.y + Math.max(region.height, 1) - 1) / size);
+
+        for (boolean[] level : compositeDirty) {
+            for (int y = startY; y <= endY; y++) {
+                for (int x = startX; x <= endX; x++) {
+                    level[y * compositeColumns + x] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks all of the composited board pixels as out of date.
+     */
+    public void invalidateComposite() {
+        for (boolean[] level : compositeDirty) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Draws the composited board pixels that intersect the given region, the
+     * layers and sprites are only painted again for chunks that are out of date
+     * or that have been evicted from the {@link ChunkImageCache}. There is no
+     * image covering the whole board, so memory use depends on the visible area
+     * and the cache budget rather than on the size of the board.
+     *
+     * When zoomed out the chunks are rendered at the matching mip level, so a
+     * zoomed out view renders fewer pixels rather than more.
+     *
+     * @param g The graphics context to draw on, in board pixels.
+     * @param clip The region about to be shown in board pixels.
+     * @throws TilePixelOutOfRangeException Thrown if a tiles pixel value is out
+     * of the allowed range.
+     */
+    protected void drawComposite(Graphics2D g, Rectangle clip)
+            throws TilePixelOutOfRangeException {
+        int chunkWidth = LayerRenderCache.CHUNK_SIZE * board.getTileWidth();
+        int chunkHeight = LayerRenderCache.CHUNK_SIZE * board.getTileHeight();
+
+        if (chunkWidth <= 0 || chunkHeight <= 0 || clip.isEmpty()) {
+            return;
+        }
+
+        int startX = Math.max(0, clip.x / chunkWidth);
+        int startY = Math.max(0, clip.y / chunkHeight);
+        int endX = Math.min(compositeColumns - 1,
+                (clip.x + clip.width - 1) / chunkWidth);
+        int endY = Math.min(compositeRows - 1,
+                (clip.y + clip.height - 1) / chunkHeight);
+
+        int level = TileMipCache.levelFor(zoom);
+        int scale = 1 << level;
+        boolean[] dirty = compositeDirty[level];
+
+        ChunkImageCache cache = ChunkImageCache.getInstance();
+        Rectangle pixelBounds = new Rectangle(getPixelWidth(), getPixelHeight());
+
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                int index = y * compositeColumns + x;
+                int key = level * dirty.length + index;
+                Rectangle chunk = new Rectangle(x * chunkWidth, y * chunkHeight,
+                        chunkWidth, chunkHeight).intersection(pixelBounds);
+
+                BufferedImage image = cache.get(this, key);
+
+                if (dirty[index] || image == null) {
+                    if (image == null) {
+                        // Everything is painted over the opaque background.
+                        image = new BufferedImage(
+                                (chunk.width + scale - 1) / scale,
+                                (chunk.height + scale - 1) / scale,
+                                BufferedImage.TYPE_INT_RGB);
+                    }
+
+                    Graphics2D chunkGraphics = image.createGraphics();
+                    chunkGraphics.scale(1.0 / scale, 1.0 / scale);
+                    chunkGraphics.translate(-chunk.x, -chunk.y);
+                    chunkGraphics.setClip(chunk);
+                    paintBoard(chunkGraphics, chunk);
+                    chunkGraphics.dispose();
+
+                    dirty[index] = false;
+                    cache.put(this, key, image);
+                }
+
+                g.drawImage(image, chunk.x, chunk.y, image.getWidth() * scale,
+                        image.getHeight() * scale, null);
+            }
+        }
+    }
+
+    /**
+     * Releases the cached rendering of this view and its layers, used when
+     * the board is closed.
+     */
+    public void dispose() {
+        TileSetUtil.removeTileSetLoadListener(this);
+
+        ChunkImageCache.getInstance().removeAll(this);
+
+        for (BoardLayerView layer : layers) {
+            layer.dispose();
+        }
+
+        invalidateComposite();
+    }
+
+    /**
+     * Repaints the part of this component that shows the given board region,
+     * the region is grown slightly to cover outlines drawn around it.
+     *
+     * @param region A region in board pixels.
+     */
+    public void repaintBoardPixels(Rectangle region) {
+        if (region == null) {
+            return;
+        }
+
+        int x = (int) Math.floor((region.x - 2) * zoom);
+        int y = (int) Math.floor((region.y - 2) * zoom);
+        int right = (int) Math.ceil((region.x + region.width + 2) * zoom);
+        int bottom = (int) Math.ceil((region.y + region.height + 2) * zoom);
+
+        repaint(x, y, right - x, bottom - y);
+    }
+
+    /**
+     * Repaints the part of this component that shows the given tiles.
+     *
+     * @param region A region in tile coordinates.
+     */
+    public void repaintTiles(Rectangle region) {
+        if (region == null) {
+            return;
+        }
+
+        int tileWidth = board.getTileWidth();
+        int tileHeight = board.getTileHeight();
+
+        repaintBoardPixels(new Rectangle(region.x * tileWidth,
+                region.y * tileHeight, region.width * tileWidth,
+                region.height * tileHeight));
+    }
+
     /**
      * Converts pixel coordinates to tile coordinates. The returned coordinates
      * are at least 0 and adjusted with respect to the number of tiles per row
@@ -417,13 +654,38 @@ public abstract class AbstractBoardView extends JPanel implements
         return !(x < 0 || y < 0);
     }
 
+    /**
+     * Converts a rectangle in component coordinates, such as the clip bounds
+     * handed to <code>paintComponent</code>, into board pixel coordinates by
+     * undoing the current zoom. The result is grown to whole pixels and
+     * limited to the board.
+     *
+     * @param rectangle A rectangle in component coordinates.
+     * @return The matching rectangle in board pixel coordinates.
+     */
+    public Rectangle toBoardPixels(Rectangle rectangle) {
+        int x = (int) Math.floor(rectangle.x / zoom);
+        int y = (int) Math.floor(rectangle.y / zoom);
+        int right = (int) Math.ceil((rectangle.x + rectangle.width) / zoom);
+        int bottom = (int) Math.ceil((rectangle.y + rectangle.height) / zoom);
+
+        Rectangle boardPixels = new Rectangle(x, y, right - x, bottom - y);
+
+        return boardPixels.intersection(
+                new Rectangle(getPixelWidth(), getPixelHeight()));
+    }
+
     /**
      * A concrete BoardView will implement its own layer drawing code here.
      *
+     * @param g The graphics context to draw on, in board pixels.
+     * @param clip The region of the board to draw in board pixels, nothing
+     * outside of it needs to be drawn.
      * @throws TilePixelOutOfRangeException Thrown if a tiles pixel value is out
      * of the allowed range.
      */
-    protected abstract void paintBoard() throws TilePixelOutOfRangeException;
+    protected abstract void paintBoard(Graphics2D g, Rectangle clip)
+            throws TilePixelOutOfRangeException;
 
     /**
      * A concrete BoardView will implement its own layer drawing code here.
@@ -475,6 +737,13 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     protected abstract void paintCursor(Graphics2D g);
 
+    /**
+     * A concrete BoardView will report the area its cursor covers here.
+     *
+     * @return The cursor area in board pixels.
+     */
+    public abstract Rectangle getCursorBounds();
+
     /**
      * A concrete BoardView will implement its own selection drawing code here.
      *
@@ -551,6 +820,7 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     @Override
     public BoardLayerView addLayerView(BoardLayerView layer) {
+        layer.setParentContainer(this);
         layers.add(layer);
         return layer;
     }
@@ -564,6 +834,7 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     @Override
     public void addLayerAfter(BoardLayerView layer, BoardLayerView after) {
+        layer.setParentContainer(this);
         layers.add(layers.indexOf(after) + 1, layer);
     }
 
@@ -576,6 +847,7 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     @Override
     public void addLayer(int index, BoardLayerView layer) {
+        layer.setParentContainer(this);
         layers.add(index, layer);
     }
 
@@ -601,6 +873,82 @@ public abstract class AbstractBoardView extends JPanel implements
         return layers.remove(index);
     }
 
+    /**
+     * Counts the tiles placed from each tile set over all of the layers, this
+     * is kept up to date as tiles are set so no layer is scanned.
+     *
+     * @return Tile counts of the tile sets in use.
+     */
+    public Map<TileSet, Integer> getTileSetUsage() {
+        Map<TileSet, Integer> totals = new LinkedHashMap<>();
+        for (BoardLayerView layer : layers) {
+            layer.getTileSetUsage().addTo(totals);
+        }
+
+        return totals;
+    }
+
+    /**
+     * Clones a layer of the board, the view of the new layer shares the packed
+     * tiles of the original until either of them is painted on.
+     *
+     * @param index The index of the layer to clone.
+     */
+    public void cloneLayer(int index) {
+        cloneSource = getLayer(index);
+        cloneIndex = index;
+        try {
+            board.cloneLayer(index);
+        } finally {
+            cloneSource = null;
+        }
+    }
+
+    /**
+     * Moves a sprite to a new place, possibly on another layer. The move is
+     * journaled and the sprite indices of the layers are kept up to date.
+     *
+     * @param sprite The sprite to move.
+     * @param x New X coordinate in pixels.
+     * @param y New Y coordinate in pixels.
+     * @param layer New layer number.
+     */
+    public void moveSprite(BoardSprite sprite, int x, int y, int layer) {
+        BoardLayerView from = getLayer(sprite.getLayer());
+        BoardLayerView to = getLayer(layer);
+
+        if (to == null) {
+            return;
+        }
+
+        int oldX = sprite.getX();
+        int oldY = sprite.getY();
+        int oldLayer = sprite.getLayer();
+
+        if (from != null) {
+            changeBus.postPixels(oldLayer, from.getSpriteBounds(sprite),
+                    BoardRegionEvent.Change.APPEARANCE);
+        }
+
+        if (from != to) {
+            if (from != null) {
+                from.getLayer().getSprites().remove(sprite);
+                from.spriteRemoved(sprite);
+            }
+
+            to.getLayer().getSprites().add(sprite);
+        }
+
+        sprite.setX(x);
+        sprite.setY(y);
+        sprite.setLayer(layer);
+        to.spriteChanged(sprite);
+
+        changeBus.postPixels(layer, to.getSpriteBounds(sprite),
+                BoardRegionEvent.Change.APPEARANCE);
+        journal.recordSpriteMoved(sprite, oldX, oldY, oldLayer);
+    }
+
     /**
      * Moves the layer at <code>index</code> up one in the ArrayList.
      *
@@ -659,49 +1007,223 @@ public abstract class AbstractBoardView extends JPanel implements
         return layers.iterator();
     }
 
+    /**
+     * Gets the undo history of this board.
+     *
+     * @return The journal.
+     */
+    @Override
+    public BoardJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     *
+     * @return The change bus.
+     */
+    @Override
+    public BoardChangeBus getChangeBus() {
+        return changeBus;
+    }
+
+    /**
+     *
+     * @return The sprite preview frames.
+     */
+    @Override
+    public SpritePreviewCache getSpritePreviews() {
+        return spritePreviews;
+    }
+
+    /**
+     * Invalidates and repaints only what a merged change affected.
+     *
+     * @param e
+     */
+    @Override
+    public void boardRegionChanged(BoardRegionEvent e) {
+        Rectangle region = e.getRegion();
+
+        if (e.contains(BoardRegionEvent.Change.TILES)) {
+            Rectangle tiles = region;
+            if (tiles == null) {
+                tiles = new Rectangle(0, 0, board.getWidth(), board.getHeight());
+            }
+
+            if (e.getFirstLayer() < 0) {
+                invalidateLayers(0, layers.size(), tiles);
+            } else {
+                invalidateLayers(e.getFirstLayer(), e.getLayerCount(), tiles);
+            }
+        }
+
+        if (e.contains(BoardRegionEvent.Change.APPEARANCE)) {
+            if (region == null) {
+                invalidateComposite();
+            } else {
+                invalidateComposite(region);
+            }
+        }
+
+        if (region == null) {
+            repaint();
+        } else {
+            repaintTiles(region);
+        }
+    }
+
     @Override
     public void boardChanged(BoardChangedEvent e) {
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardLayerAdded(BoardChangedEvent e) {
         addLayerView(new BoardLayerView(e.getLayer()));
+        journal.recordLayerAdded(e.getLayer().getNumber());
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardLayerMovedUp(BoardChangedEvent e) {
         swapLayerUp(e.getLayer().getNumber() - 1);
+        journal.recordLayerMoved(e.getLayer().getNumber(), true);
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardLayerMovedDown(BoardChangedEvent e) {
         swapLayerDown(e.getLayer().getNumber() + 1);
+        journal.recordLayerMoved(e.getLayer().getNumber(), false);
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardLayerCloned(BoardChangedEvent e) {
-        addLayer(e.getLayer().getNumber(), new BoardLayerView(e.getLayer()));
+        BoardLayerView layerView;
+        if (cloneSource != null) {
+            layerView = new BoardLayerView(e.getLayer(),
+                    cloneSource.getTileStore().copy(),
+                    cloneSource.getTileSetUsage().copy());
+        } else {
+            layerView = new BoardLayerView(e.getLayer());
+        }
+
+        addLayer(e.getLayer().getNumber(), layerView);
+        journal.recordLayerCloned(cloneSource != null ? cloneIndex
+                : e.getLayer().getNumber() - 1, e.getLayer().getNumber());
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardLayerDeleted(BoardChangedEvent e) {
-        removeLayer(e.getLayer().getNumber());
+        removeLayer(e.getLayer().getNumber()).dispose();
+        journal.recordLayerDeleted(e.getLayer().getNumber(), e.getLayer());
+        invalidateComposite();
         repaint();
     }
 
     @Override
     public void boardSpriteAdded(BoardChangedEvent e) {
-        repaint();
+        BoardSprite sprite = e.getBoardSprite();
+        BoardLayerView layerView = getLayer(sprite.getLayer());
+
+        // The sprite's item may have been loaded since its frame was cached.
+        refreshSpritePreview(sprite);
+
+        if (layerView != null) {
+            layerView.spriteChanged(sprite);
+            changeBus.postPixels(sprite.getLayer(),
+                    layerView.getSpriteBounds(sprite),
+                    BoardRegionEvent.Change.APPEARANCE);
+        } else {
+            invalidateComposite();
+            repaint();
+        }
+    }
+
+    /**
+     * Resolves the preview frame of a sprite's file again. If the frame was
+     * replaced, every sprite showing the same file is indexed with its new
+     * bounds and repainted, as their cached bounds are now out of date.
+     *
+     * @param sprite A sprite that was added or whose file changed.
+     */
+    public void refreshSpritePreview(BoardSprite sprite) {
+        if (!spritePreviews.refresh(sprite)) {
+            return;
+        }
+
+        String fileName = sprite.getFileName();
+        for (BoardLayerView layerView : layers) {
+            for (BoardSprite other : layerView.getLayer().getSprites()) {
+                if (!fileName.equals(other.getFileName())) {
+                    continue;
+                }
+
+                Rectangle old = layerView.getIndexedSpriteBounds(other);
+                if (old != null) {
+                    changeBus.postPixels(other.getLayer(), old,
+                            BoardRegionEvent.Change.APPEARANCE);
+                }
+
+                layerView.spriteChanged(other);
+                changeBus.postPixels(other.getLayer(),
+                        layerView.getSpriteBounds(other),
+                        BoardRegionEvent.Change.APPEARANCE);
+            }
+        }
     }
 
     @Override
     public void boardSpriteRemoved(BoardChangedEvent e) {
-        repaint();
+        BoardSprite sprite = e.getBoardSprite();
+        BoardLayerView layerView = getLayer(sprite.getLayer());
+
+        if (layerView != null) {
+            layerView.spriteRemoved(sprite);
+            changeBus.postPixels(sprite.getLayer(),
+                    layerView.getSpriteBounds(sprite),
+                    BoardRegionEvent.Change.APPEARANCE);
+        } else {
+            invalidateComposite();
+            repaint();
+        }
+    }
+
+    @Override
+    public void tileSetLoadProgressed(TileSetLoadEvent e) {
+
+    }
+
+    /**
+     * Redraws only the chunks that show tiles from the tile set that has just
+     * finished loading, they were drawn as placeholders until now.
+     *
+     * @param e
+     */
+    @Override
+    public void tileSetLoaded(TileSetLoadEvent e) {
+        TileSet tileSet = e.getTileSet();
+        boolean changed = false;
+
+        for (BoardLayerView layer : layers) {
+            List<Rectangle> regions = layer.invalidate(tileSet);
+
+            for (Rectangle region : regions) {
+                invalidateComposite(region);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            repaint();
+        }
     }
 
     /**
@@ -710,9 +1232,15 @@ public abstract class AbstractBoardView extends JPanel implements
      */
     private void init() {
         board.addBoardChangeListener(this);
+        TileSetUtil.addTileSetLoadListener(this);
 
         layers = new ArrayList();
         bounds = new Rectangle();
+        journal = new BoardJournal(this);
+        changeBus = new BoardChangeBus(board);
+        changeBus.addBoardRegionListener(this);
+        spritePreviews = new SpritePreviewCache(board.getTileWidth(),
+                board.getTileHeight());
 
         zoom = 1.0;
         zoomLevel = ZOOM_NORMALSIZE;
@@ -726,11 +1254,12 @@ public abstract class AbstractBoardView extends JPanel implements
                 )
         );
 
-        bufferedImage = new BufferedImage(
-                (board.getWidth() * board.getTileWidth()),
-                (board.getHeight() * board.getTileHeight()),
-                BufferedImage.TYPE_INT_ARGB
-        );
+        int chunkSize = LayerRenderCache.CHUNK_SIZE;
+        compositeColumns = (board.getWidth() + chunkSize - 1) / chunkSize;
+        compositeRows = (board.getHeight() + chunkSize - 1) / chunkSize;
+        compositeDirty = new boolean[TileMipCache.LEVELS][
+                compositeColumns * compositeRows];
+        invalidateComposite();
 
         antialiasGrid = true;
         gridColor = DEFAULT_GRID_COLOR;
@@ -110,6 +110,18 @@ public abstract class AbstractBrush implements Brush {
           AbstractBoardView view) {
     // TODO: draw an off-board preview here.
   }
+
+  /**
+   * Gets the area of the board, in pixels, that the on-board preview of this
+   * brush covers in addition to the cursor. Used to limit repaints when the
+   * cursor moves.
+   *
+   * @param view the view the preview is drawn on
+   * @return the preview area, or null if the brush draws no extra preview
+   */
+  public Rectangle getPreviewBounds(AbstractBoardView view) {
+    return null;
+  }
   
   public abstract void doMouseButton1Pressed(Point point, AssetEditorWindow editor);
   
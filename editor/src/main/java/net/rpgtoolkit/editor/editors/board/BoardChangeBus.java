@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.EnumSet;
+import java.util.Set;
+import javax.swing.SwingUtilities;
+import javax.swing.event.EventListenerList;
+
+import net.rpgtoolkit.common.assets.Board;
+import net.rpgtoolkit.editor.ui.listeners.BoardRegionListener;
+
+/**
+ * Carries changes made to a board from the editor to whatever has to react to
+ * them, along with the layers and tile region they affect. Unlike
+ * fireBoardChanged() nothing is delivered straight away, every change posted
+ * during one cycle of the event dispatch thread is merged and delivered as a
+ * single {@link BoardRegionEvent} once the cycle is over. A burst of changes
+ * such as a vector being drawn therefore costs one repaint of the region it
+ * touched rather than one repaint of the board per change.
+ *
+ * This is only used from the event dispatch thread.
+ */
+public final class BoardChangeBus {
+
+    private final Board board;
+    private final EventListenerList listeners = new EventListenerList();
+
+    private int firstLayer = -1;
+    private int lastLayer = -1;
+    private Rectangle region;
+    private boolean wholeBoard;
+    private final Set<BoardRegionEvent.Change> changes
+            = EnumSet.noneOf(BoardRegionEvent.Change.class);
+    private boolean scheduled;
+
+    /**
+     *
+     * @param board The board whose changes are carried.
+     */
+    public BoardChangeBus(Board board) {
+        this.board = board;
+    }
+
+    /**
+     *
+     * @param listener
+     */
+    public void addBoardRegionListener(BoardRegionListener listener) {
+        listeners.add(BoardRegionListener.class, listener);
+    }
+
+    /**
+     *
+     * @param listener
+     */
+    public void removeBoardRegionListener(BoardRegionListener listener) {
+        listeners.remove(BoardRegionListener.class, listener);
+    }
+
+    /**
+     * Posts a change, it is delivered with any others posted before the event
+     * dispatch thread is next idle.
+     *
+     * @param layer The layer changed, -1 if the change is not on a layer.
+     * @param region The changed region in tile coordinates, null for the
+     * whole board.
+     * @param change The kind of change.
+     */
+    public void post(int layer, Rectangle region, BoardRegionEvent.Change change) {
+        if (layer >= 0) {
+            firstLayer = firstLayer < 0 ? layer : Math.min(firstLayer, layer);
+            lastLayer = Math.max(lastLayer, layer);
+        }
+
+        if (region == null) {
+            wholeBoard = true;
+        } else if (!wholeBoard) {
+            if (this.region == null) {
+                this.region = new Rectangle(region);
+            } else {
+                this.region.add(region);
+            }
+        }
+
+        changes.add(change);
+
+        if (!scheduled) {
+            scheduled = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Posts a change made to the same region of a range of layers.
+     *
+     * @param layer The first layer changed.
+     * @param count Number of layers changed, starting at <code>layer</code>.
+     * @param region The changed region in tile coordinates, null for the
+     * whole board.
+     * @param change The kind of change.
+     */
+    public void postLayers(int layer, int count, Rectangle region,
+            BoardRegionEvent.Change change) {
+        for (int i = layer; i < layer + count; i++) {
+            post(i, region, change);
+        }
+    }
+
+    /**
+     * Posts a change to a region given in board pixels, it is converted to
+     * the tiles it covers.
+     *
+     * @param layer The layer changed, -1 if the change is not on a layer.
+     * @param pixels The changed region in board pixels.
+     * @param change The kind of change.
+     */
+    public void postPixels(int layer, Rectangle pixels,
+            BoardRegionEvent.Change change) {
+        int tileWidth = board.getTileWidth();
+        int tileHeight = board.getTileHeight();
+
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            post(layer, null, change);
+            return;
+        }
+
+        int startX = Math.floorDiv(pixels.x, tileWidth);
+        int startY = Math.floorDiv(pixels.y, tileHeight);
+        int endX = Math.floorDiv(pixels.x + pixels.width, tileWidth);
+        int endY = Math.floorDiv(pixels.y + pixels.height, tileHeight);
+
+        post(layer, new Rectangle(startX, startY, endX - startX + 1,
+                endY - startY + 1), change);
+    }
+
+    /**
+     * Delivers the pending changes now rather than waiting for the event
+     * dispatch thread.
+     */
+    public void flush() {
+        scheduled = false;
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        BoardRegionEvent event = new BoardRegionEvent(this, firstLayer,
+                lastLayer, wholeBoard ? null : region, changes);
+
+        firstLayer = -1;
+        lastLayer = -1;
+        region = null;
+        wholeBoard = false;
+        changes.clear();
+
+        for (BoardRegionListener listener
+                : listeners.getListeners(BoardRegionListener.class)) {
+            listener.boardRegionChanged(event);
+        }
+    }
+
+}
@@ -0,0 +1,729 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+import net.rpgtoolkit.common.assets.Board;
+import net.rpgtoolkit.common.assets.BoardLayer;
+import net.rpgtoolkit.common.assets.BoardSprite;
+import net.rpgtoolkit.common.assets.BoardVector;
+import net.rpgtoolkit.common.assets.Tile;
+import net.rpgtoolkit.editor.properties.EditorProperties;
+import net.rpgtoolkit.editor.properties.EditorProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the edits made to a board so that they can be undone and redone.
+ * Each brush stroke is kept as a compact {@link TileDelta} where the tiles
+ * are replaced by their index in a small table held by the journal. Undoing
+ * a stroke only writes back the cells it changed, so large fills are as cheap
+ * to undo as they were to make. A stroke lasts for one paint session, a
+ * whole drag is a single edit but separate clicks are not merged.
+ *
+ * Layers are recorded by number, so adding, removing, cloning and moving
+ * layers are journaled as edits too and undone in order with everything
+ * else. The memory used by the history is kept within a budget read from the
+ * editor properties in megabytes, the oldest edits are dropped first.
+ *
+ * This is only used from the event dispatch thread.
+ */
+public final class BoardJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardJournal.class);
+
+    private static final long DEFAULT_BUDGET = 16;
+
+    private static final long BUDGET = readBudget() * 1024 * 1024;
+
+    private final AbstractBoardView view;
+    private final long budget;
+
+    private final Deque<Edit> undoEdits = new ArrayDeque<>();
+    private final Deque<Edit> redoEdits = new ArrayDeque<>();
+    private long size;
+
+    private final List<Tile> tiles = new ArrayList<>();
+    private final Map<Tile, Integer> tileIndices = new IdentityHashMap<>();
+
+    private TileStroke stroke;
+    private boolean applying;
+
+    private final EventListenerList listeners = new EventListenerList();
+
+    /**
+     * Creates an empty journal for a board view.
+     *
+     * @param view The view whose board is edited.
+     */
+    public BoardJournal(AbstractBoardView view) {
+        this(view, BUDGET);
+    }
+
+    /**
+     * Creates an empty journal with its own budget.
+     *
+     * @param view The view whose board is edited.
+     * @param budget Maximum number of bytes of history to keep.
+     */
+    BoardJournal(AbstractBoardView view, long budget) {
+        this.view = view;
+        this.budget = budget;
+        tiles.add(null); // Index 0 is always an empty cell.
+    }
+
+    /**
+     * Starts recording a stroke, every tile change recorded until
+     * {@link #endStroke()} is undone as a single edit.
+     */
+    public void beginStroke() {
+        if (stroke != null) {
+            endStroke();
+        }
+
+        stroke = new TileStroke();
+    }
+
+    /**
+     * Records a single tile change on a layer, it is ignored if no stroke is
+     * being recorded or an edit is being undone.
+     *
+     * @param layer Number of the layer.
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @param oldTile The tile that was replaced.
+     * @param newTile The tile that replaced it.
+     */
+    public void recordTile(int layer, int x, int y, Tile oldTile, Tile newTile) {
+        if (stroke == null || applying) {
+            return;
+        }
+
+        stroke.delta.add(layer, x, y, indexOf(oldTile), indexOf(newTile));
+    }
+
+    /**
+     * Finishes the current stroke and adds it to the history if anything was
+     * changed.
+     */
+    public void endStroke() {
+        if (stroke == null) {
+            return;
+        }
+
+        TileStroke finished = stroke;
+        stroke = null;
+
+        if (!finished.delta.isEmpty()) {
+            push(finished);
+        }
+    }
+
+    /**
+     *
+     * @param sprite A sprite that was added to the board.
+     */
+    public void recordSpriteAdded(BoardSprite sprite) {
+        if (!applying) {
+            push(new SpriteEdit(sprite, true));
+        }
+    }
+
+    /**
+     *
+     * @param sprite A sprite that was removed from the board.
+     */
+    public void recordSpriteRemoved(BoardSprite sprite) {
+        if (!applying) {
+            push(new SpriteEdit(sprite, false));
+        }
+    }
+
+    /**
+     * Records a sprite being moved, it has already been given its new place.
+     *
+     * @param sprite The sprite.
+     * @param oldX Its previous X coordinate.
+     * @param oldY Its previous Y coordinate.
+     * @param oldLayer Its previous layer.
+     */
+    public void recordSpriteMoved(BoardSprite sprite, int oldX, int oldY,
+            int oldLayer) {
+        if (!applying) {
+            push(new SpriteMove(sprite, oldX, oldY, oldLayer));
+        }
+    }
+
+    /**
+     *
+     * @param layer Number of the layer the vector was added to.
+     * @param vector The vector.
+     */
+    public void recordVectorAdded(int layer, BoardVector vector) {
+        if (!applying) {
+            push(new VectorEdit(layer, vector, true));
+        }
+    }
+
+    /**
+     *
+     * @param layer Number of the layer the vector was removed from.
+     * @param vector The vector.
+     */
+    public void recordVectorRemoved(int layer, BoardVector vector) {
+        if (!applying) {
+            push(new VectorEdit(layer, vector, false));
+        }
+    }
+
+    /**
+     *
+     * @param number Number of the layer that was added.
+     */
+    public void recordLayerAdded(int number) {
+        if (!applying) {
+            push(new LayerAdded(number));
+        }
+    }
+
+    /**
+     *
+     * @param number Number of the layer after it was moved.
+     * @param up Was it moved up?
+     */
+    public void recordLayerMoved(int number, boolean up) {
+        if (!applying) {
+            push(new LayerMoved(number, up));
+        }
+    }
+
+    /**
+     *
+     * @param source Number of the layer that was cloned.
+     * @param number Number of the clone.
+     */
+    public void recordLayerCloned(int source, int number) {
+        if (!applying) {
+            push(new LayerCloned(source, number));
+        }
+    }
+
+    /**
+     * Records a layer being deleted, the layer keeps its tiles, sprites and
+     * vectors so that it can be restored.
+     *
+     * @param number Number the layer had.
+     * @param layer The layer.
+     */
+    public void recordLayerDeleted(int number, BoardLayer layer) {
+        if (!applying) {
+            push(new LayerDeleted(number, layer));
+        }
+    }
+
+    /**
+     * Adds a listener that is told whenever edits are added to, removed from
+     * or moved within the history.
+     *
+     * @param listener
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(ChangeListener.class, listener);
+    }
+
+    /**
+     *
+     * @param listener
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(ChangeListener.class, listener);
+    }
+
+    /**
+     *
+     * @return Is there an edit to undo?
+     */
+    public boolean canUndo() {
+        return !undoEdits.isEmpty();
+    }
+
+    /**
+     *
+     * @return Is there an edit to redo?
+     */
+    public boolean canRedo() {
+        return !redoEdits.isEmpty();
+    }
+
+    /**
+     * Reverts the most recent edit.
+     *
+     * @return Was anything undone?
+     */
+    public boolean undo() {
+        endStroke();
+
+        Edit edit = undoEdits.pollLast();
+        if (edit == null) {
+            return false;
+        }
+
+        apply(edit, false);
+        redoEdits.addLast(edit);
+        fireJournalChanged();
+
+        return true;
+    }
+
+    /**
+     * Applies the most recently undone edit again.
+     *
+     * @return Was anything redone?
+     */
+    public boolean redo() {
+        endStroke();
+
+        Edit edit = redoEdits.pollLast();
+        if (edit == null) {
+            return false;
+        }
+
+        apply(edit, true);
+        undoEdits.addLast(edit);
+        fireJournalChanged();
+
+        return true;
+    }
+
+    /**
+     * Drops the whole history.
+     */
+    public void clear() {
+        stroke = null;
+        undoEdits.clear();
+        redoEdits.clear();
+        tiles.subList(1, tiles.size()).clear();
+        tileIndices.clear();
+        size = 0;
+        fireJournalChanged();
+    }
+
+    /**
+     *
+     * @return Approximate number of bytes held by the history.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @return Number of edits that can be undone.
+     */
+    int getUndoCount() {
+        return undoEdits.size();
+    }
+
+    private void apply(Edit edit, boolean forward) {
+        applying = true;
+        try {
+            edit.apply(forward);
+        } finally {
+            applying = false;
+        }
+    }
+
+    private void push(Edit edit) {
+        undoEdits.addLast(edit);
+        size += edit.getByteSize();
+
+        for (Edit undone : redoEdits) {
+            size -= undone.getByteSize();
+        }
+        redoEdits.clear();
+
+        trim();
+        fireJournalChanged();
+    }
+
+    private void trim() {
+        // The most recent edit is always kept, however large it is.
+        while (size > budget && undoEdits.size() > 1) {
+            size -= undoEdits.pollFirst().getByteSize();
+        }
+    }
+
+    private void fireJournalChanged() {
+        ChangeEvent event = new ChangeEvent(this);
+        for (ChangeListener listener
+                : listeners.getListeners(ChangeListener.class)) {
+            listener.stateChanged(event);
+        }
+    }
+
+    private int indexOf(Tile tile) {
+        if (tile == null) {
+            return 0;
+        }
+
+        Integer index = tileIndices.get(tile);
+        if (index == null) {
+            index = tiles.size();
+            tiles.add(tile);
+            tileIndices.put(tile, index);
+        }
+
+        return index;
+    }
+
+    private static long readBudget() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_BOARD_UNDO_SIZE);
+
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid board undo size value=[{}]", value, ex);
+            }
+        }
+
+        return DEFAULT_BUDGET;
+    }
+
+    private abstract static class Edit {
+
+        abstract void apply(boolean forward);
+
+        abstract long getByteSize();
+
+    }
+
+    private final class TileStroke extends Edit {
+
+        private final TileDelta delta = new TileDelta();
+
+        @Override
+        void apply(boolean forward) {
+            // Written through the layer views to keep their packed tiles in
+            // sync, nothing is recorded while an edit is being applied.
+            delta.apply(forward, (int layer, int x, int y, int index) -> {
+                BoardLayerView layerView = view.getLayer(layer);
+                if (layerView != null) {
+                    layerView.setTileAt(x, y, tiles.get(index));
+                }
+            });
+
+            for (int layer : delta.getLayers()) {
+                if (view.getLayer(layer) == null) {
+                    LOGGER.warn("Skipping edit on missing layer=[{}].", layer);
+                    continue;
+                }
+
+                view.getChangeBus().post(layer, delta.getBounds(layer),
+                        BoardRegionEvent.Change.TILES);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return delta.getByteSize();
+        }
+
+    }
+
+    private final class SpriteEdit extends Edit {
+
+        private final BoardSprite sprite;
+        private final boolean added;
+
+        private SpriteEdit(BoardSprite sprite, boolean added) {
+            this.sprite = sprite;
+            this.added = added;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            if (forward == added) {
+                view.getBoard().addSprite(sprite);
+            } else {
+                view.getBoard().removeSprite(sprite);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 64;
+        }
+
+    }
+
+    private final class VectorEdit extends Edit {
+
+        private final int layer;
+        private final BoardVector vector;
+        private final boolean added;
+
+        private VectorEdit(int layer, BoardVector vector, boolean added) {
+            this.layer = layer;
+            this.vector = vector;
+            this.added = added;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            Board board = view.getBoard();
+
+            if (layer >= board.getLayers().size()) {
+                LOGGER.warn("Skipping edit on missing layer=[{}].", layer);
+                return;
+            }
+
+            List<BoardVector> vectors = board.getLayers().get(layer).getVectors();
+            BoardLayerView layerView = view.getLayer(layer);
+            if (forward == added) {
+                vectors.add(vector);
+                if (layerView != null) {
+                    layerView.vectorChanged(vector);
+                }
+            } else {
+                vectors.remove(vector);
+                if (layerView != null) {
+                    layerView.vectorRemoved(vector);
+                }
+            }
+
+            Rectangle bounds = null;
+            for (int i = 0; i < vector.getPointCount(); i++) {
+                Rectangle point = new Rectangle(vector.getPointX(i),
+                        vector.getPointY(i), 0, 0);
+
+                if (bounds == null) {
+                    bounds = point;
+                } else {
+                    bounds.add(point);
+                }
+            }
+
+            if (bounds == null) {
+                view.getChangeBus().post(layer, null,
+                        BoardRegionEvent.Change.OVERLAY);
+            } else {
+                view.getChangeBus().postPixels(layer, bounds,
+                        BoardRegionEvent.Change.OVERLAY);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 64 + vector.getPointCount() * 16;
+        }
+
+    }
+
+    private final class SpriteMove extends Edit {
+
+        private final BoardSprite sprite;
+        private final int oldX;
+        private final int oldY;
+        private final int oldLayer;
+        private final int newX;
+        private final int newY;
+        private final int newLayer;
+
+        private SpriteMove(BoardSprite sprite, int oldX, int oldY, int oldLayer) {
+            this.sprite = sprite;
+            this.oldX = oldX;
+            this.oldY = oldY;
+            this.oldLayer = oldLayer;
+            newX = sprite.getX();
+            newY = sprite.getY();
+            newLayer = sprite.getLayer();
+        }
+
+        @Override
+        void apply(boolean forward) {
+            if (forward) {
+                view.moveSprite(sprite, newX, newY, newLayer);
+            } else {
+                view.moveSprite(sprite, oldX, oldY, oldLayer);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 64;
+        }
+
+    }
+
+    private final class LayerAdded extends Edit {
+
+        private final int number;
+
+        private LayerAdded(int number) {
+            this.number = number;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            if (forward) {
+                view.getBoard().addLayer();
+            } else {
+                view.getBoard().deleteLayer(number);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 32;
+        }
+
+    }
+
+    private final class LayerMoved extends Edit {
+
+        private final int number;
+        private final boolean up;
+
+        private LayerMoved(int number, boolean up) {
+            this.number = number;
+            this.up = up;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            Board board = view.getBoard();
+
+            // The layer is at number after the move, it came from the
+            // layer below it if it moved up or the one above if it moved
+            // down.
+            if (up) {
+                if (forward) {
+                    board.moveLayerUp(number - 1);
+                } else {
+                    board.moveLayerDown(number);
+                }
+            } else if (forward) {
+                board.moveLayerDown(number + 1);
+            } else {
+                board.moveLayerUp(number);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 32;
+        }
+
+    }
+
+    private final class LayerCloned extends Edit {
+
+        private final int source;
+        private final int number;
+
+        private LayerCloned(int source, int number) {
+            this.source = source;
+            this.number = number;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            if (forward) {
+                view.cloneLayer(source);
+            } else {
+                view.getBoard().deleteLayer(number);
+            }
+        }
+
+        @Override
+        long getByteSize() {
+            return 32;
+        }
+
+    }
+
+    private final class LayerDeleted extends Edit {
+
+        private final int number;
+        private final BoardLayer layer;
+
+        private LayerDeleted(int number, BoardLayer layer) {
+            this.number = number;
+            this.layer = layer;
+        }
+
+        @Override
+        void apply(boolean forward) {
+            Board board = view.getBoard();
+
+            if (forward) {
+                board.deleteLayer(number);
+                return;
+            }
+
+            // The board can only append layers, so add an empty one and move
+            // it down into place before filling it with what was deleted.
+            board.addLayer();
+            for (int i = board.getLayers().size() - 1; i > number; i--) {
+                board.moveLayerDown(i);
+            }
+
+            BoardLayerView layerView = view.getLayer(number);
+            if (layerView == null) {
+                LOGGER.warn("Failed to restore deleted layer=[{}].", number);
+                return;
+            }
+
+            BoardLayer restored = layerView.getLayer();
+            restored.setName(layer.getName());
+
+            for (int x = 0; x < board.getWidth(); x++) {
+                for (int y = 0; y < board.getHeight(); y++) {
+                    Tile tile = layer.getTileAt(x, y);
+                    if (tile != null) {
+                        layerView.setTileAt(x, y, tile);
+                    }
+                }
+            }
+
+            for (BoardVector vector : layer.getVectors()) {
+                vector.setLayer(number);
+                restored.getVectors().add(vector);
+                layerView.vectorChanged(vector);
+            }
+
+            for (BoardSprite sprite : new ArrayList<>(layer.getSprites())) {
+                sprite.setLayer(number);
+                board.addSprite(sprite);
+            }
+
+            view.getChangeBus().post(number, null,
+                    BoardRegionEvent.Change.TILES);
+        }
+
+        @Override
+        long getByteSize() {
+            Board board = view.getBoard();
+            return 64 + (long) board.getWidth() * board.getHeight() * 8;
+        }
+
+    }
+
+}
@@ -12,9 +12,15 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.rpgtoolkit.common.assets.Board;
 import net.rpgtoolkit.common.assets.BoardLayer;
@@ -22,6 +28,7 @@ import net.rpgtoolkit.common.assets.BoardSprite;
 import net.rpgtoolkit.common.assets.BoardVector;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.common.assets.TilePixelOutOfRangeException;
+import net.rpgtoolkit.common.assets.TileSet;
 import net.rpgtoolkit.editor.utilities.GuiHelper;
 
 /**
@@ -31,6 +38,21 @@ import net.rpgtoolkit.editor.utilities.GuiHelper;
  */
 public class BoardLayerView {
 
+    /**
+     * Size of the cells of the sprite and vector indices in pixels.
+     */
+    private static final int INDEX_CELL_SIZE = 256;
+    /**
+     * How close to a vector a point has to be to hit it, in pixels. It also
+     * covers the width of the lines vectors are drawn with.
+     */
+    private static final int VECTOR_HIT_DISTANCE = 4;
+    /**
+     * Strokes vectors are drawn with, shared by every layer.
+     */
+    private static final BasicStroke NORMAL_STROKE = new BasicStroke(1.0f);
+    private static final BasicStroke SELECTED_STROKE = new BasicStroke(3.0f);
+
     /**
      * Layer this view represents.
      */
@@ -55,6 +77,31 @@ public class BoardLayerView {
      * Bounds of the layer.
      */
     private Rectangle bounds;
+    /**
+     * The tiles of the layer packed into ints, kept in sync by setTileAt.
+     */
+    private TileStore tiles;
+    private TileSetUsage usage;
+    /**
+     * Cached rendering of this layers tiles.
+     */
+    private LayerRenderCache renderCache;
+    /**
+     * The sprites and vectors of the layer indexed by their bounds.
+     */
+    private final SpatialGrid<BoardSprite> spriteIndex
+            = new SpatialGrid<>(INDEX_CELL_SIZE);
+    private final SpatialGrid<BoardVector> vectorIndex
+            = new SpatialGrid<>(INDEX_CELL_SIZE);
+    /**
+     * The sprites of the layer in the order they are drawn.
+     */
+    private final SpriteDrawList drawList = new SpriteDrawList();
+    /**
+     * The outline of each vector, rebuilt when its points change.
+     */
+    private final Map<BoardVector, Path2D> vectorPaths = new IdentityHashMap<>();
+    private final List<BoardVector> visibleVectors = new ArrayList<>();
 
     /**
      * Default constructor.
@@ -101,6 +148,29 @@ public class BoardLayerView {
         isVisible = true;
         isLocked = false;
         opacity = 1.0f;
+        tiles = TileStores.fromLayer(layer);
+        usage = TileSetUsage.of(tiles);
+        renderCache = new LayerRenderCache(layer, tiles);
+        rebuildIndex();
+    }
+
+    /**
+     * Creates a view of a layer whose tiles are already known, such as a clone
+     * of another layer, without packing them again.
+     *
+     * @param layer
+     * @param tiles The packed tiles of the layer, taken over by the view.
+     * @param usage The tile set usage of the tiles, taken over by the view.
+     */
+    public BoardLayerView(BoardLayer layer, TileStore tiles, TileSetUsage usage) {
+        this.layer = layer;
+        isVisible = true;
+        isLocked = false;
+        opacity = 1.0f;
+        this.tiles = tiles;
+        this.usage = usage;
+        renderCache = new LayerRenderCache(layer, tiles);
+        rebuildIndex();
     }
 
     /**
@@ -127,7 +197,23 @@ public class BoardLayerView {
      * @param layer
      */
     public void setLayer(BoardLayer layer) {
+        if (renderCache != null) {
+            renderCache.dispose();
+        }
+
+        if (tiles != null) {
+            tiles.dispose();
+        }
+
+        if (usage != null) {
+            usage.release();
+        }
+
         this.layer = layer;
+        tiles = TileStores.fromLayer(layer);
+        usage = TileSetUsage.of(tiles);
+        renderCache = new LayerRenderCache(layer, tiles);
+        rebuildIndex();
     }
 
     /**
@@ -213,7 +299,7 @@ public class BoardLayerView {
             this.opacity = opacity;
 
             if (isVisible() && layer != null) {
-                layer.getBoard().fireBoardChanged();
+                postChange(BoardRegionEvent.Change.APPEARANCE);
             }
         }
     }
@@ -239,7 +325,7 @@ public class BoardLayerView {
             isVisible = visible;
 
             if (layer != null) {
-                layer.getBoard().fireBoardChanged();
+                postChange(BoardRegionEvent.Change.APPEARANCE);
             }
         }
     }
@@ -308,37 +394,419 @@ public class BoardLayerView {
      */
     public void setParentContainer(MultiLayerContainer parentContainer) {
         this.parentContainer = parentContainer;
+
+        // Sprite bounds depend on the preview frames of the container.
+        if (layer != null) {
+            rebuildIndex();
+        }
     }
 
     /**
-     * Draws the tiles for this layer.
+     * Gets the tile at the given position.
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @return The tile, or null if the position is outside of the layer.
+     */
+    public Tile getTileAt(int x, int y) {
+        if (!layer.contains(x, y)) {
+            return null;
+        }
+
+        return layer.getTileAt(x, y);
+    }
+
+    /**
+     * Gets the packed code of the tile at the given position, this is cheaper
+     * than {@link #getTileAt(int, int)} for comparing tiles.
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @return The code, see {@link TileCodes}, or -1 if the position is
+     * outside of the layer.
+     */
+    public int getTileCode(int x, int y) {
+        if (x < 0 || y < 0 || x >= tiles.getWidth() || y >= tiles.getHeight()) {
+            return -1;
+        }
+
+        return tiles.get(x, y);
+    }
+
+    /**
+     *
+     * @return The tiles of this layer packed into ints.
+     */
+    public TileStore getTileStore() {
+        return tiles;
+    }
+
+    /**
+     *
+     * @return Number of tiles on this layer from each tile set.
+     */
+    public TileSetUsage getTileSetUsage() {
+        return usage;
+    }
+
+    /**
+     * Sets the tile at the given position, brushes should always go through
+     * this rather than the layer so that the change is recorded in the
+     * journal of the parent container. Positions outside of the layer are
+     * ignored.
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @param tile The new tile.
+     * @return Was the tile changed?
+     */
+    public boolean setTileAt(int x, int y, Tile tile) {
+        if (!layer.contains(x, y)) {
+            return false;
+        }
+
+        Tile old = layer.getTileAt(x, y);
+        if (old == tile) {
+            return false;
+        }
+
+        int code = TileCodes.encode(tile);
+        // Add before removing so a tile set that stays in use keeps its
+        // reference in the atlas cache.
+        usage.add(code);
+        usage.remove(tiles.get(x, y));
+
+        layer.setTileAt(x, y, tile);
+        tiles.set(x, y, code);
+
+        if (parentContainer != null && parentContainer.getJournal() != null) {
+            parentContainer.getJournal().recordTile(layer.getNumber(), x, y,
+                    old, tile);
+        }
+
+        return true;
+    }
+
+    private void postChange(BoardRegionEvent.Change change) {
+        if (parentContainer != null && parentContainer.getChangeBus() != null) {
+            parentContainer.getChangeBus().post(layer.getNumber(), null, change);
+        }
+    }
+
+    /**
+     * Marks the cached rendering of the given tile region as out of date, it
+     * will be redrawn the next time this layer is painted.
+     *
+     * @param region The changed region in tile coordinates.
+     */
+    public void invalidate(Rectangle region) {
+        if (renderCache != null) {
+            renderCache.invalidate(region);
+        }
+    }
+
+    /**
+     * Marks the cached rendering of every chunk that uses the given tile set as
+     * out of date.
+     *
+     * @param tileSet The tile set that has changed.
+     * @return The regions that were marked, in tile coordinates.
+     */
+    public List<Rectangle> invalidate(TileSet tileSet) {
+        if (renderCache == null) {
+            return Collections.emptyList();
+        }
+
+        return renderCache.invalidate(tileSet);
+    }
+
+    /**
+     * Marks the cached rendering of the whole layer as out of date.
+     */
+    public void invalidateAll() {
+        if (renderCache != null) {
+            renderCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Releases the cached rendering and packed tiles of this layer, used when
+     * the layer is removed from its view.
+     */
+    public void dispose() {
+        if (renderCache != null) {
+            renderCache.dispose();
+        }
+
+        if (tiles != null) {
+            tiles.dispose();
+        }
+
+        if (usage != null) {
+            usage.release();
+        }
+    }
+
+    /**
+     * Draws the tiles for this layer from its render cache, only chunks that
+     * have been invalidated since the last call are redrawn tile by tile.
      *
      * @param g Graphics context to draw to.
      * @throws TilePixelOutOfRangeException Throws an exception if the tiles
      * pixel value is out of the allowed range.
      */
     public void drawTiles(Graphics2D g) throws TilePixelOutOfRangeException {
-        Board parentBoard = layer.getBoard();
-
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP,
                 opacity));
 
-        for (int x = 0; x < parentBoard.getWidth(); x++) {
-            for (int y = 0; y < parentBoard.getHeight(); y++) {
-                if (layer.getTiles()[x][y] != null) {
-                    Tile tile = layer.getTiles()[x][y];
-
-                    g.drawImage(
-                            tile.getTileAsImage(),
-                            (x * layer.getBoard().getTileWidth()),
-                            (y * layer.getBoard().getTileHeight()),
-                            null
-                    );
-                } else {
-                    g.setColor(Color.white);
-                }
+        renderCache.draw(g);
+    }
+
+    /**
+     * Indexes a sprite that was added to this layer or moved.
+     *
+     * @param sprite The sprite.
+     */
+    public void spriteChanged(BoardSprite sprite) {
+        Rectangle bounds = getSpriteBounds(sprite);
+        spriteIndex.put(sprite, bounds);
+        drawList.put(sprite, bounds);
+    }
+
+    /**
+     *
+     * @param sprite A sprite on this layer.
+     * @return The bounds it was last indexed with, or null if it is not
+     * indexed.
+     */
+    public Rectangle getIndexedSpriteBounds(BoardSprite sprite) {
+        return spriteIndex.getBounds(sprite);
+    }
+
+    /**
+     *
+     * @param sprite A sprite that was removed from this layer.
+     */
+    public void spriteRemoved(BoardSprite sprite) {
+        spriteIndex.remove(sprite);
+        drawList.remove(sprite);
+    }
+
+    /**
+     * Indexes a vector that was added to this layer or whose points changed.
+     *
+     * @param vector The vector.
+     */
+    public void vectorChanged(BoardVector vector) {
+        vectorIndex.put(vector, getVectorBounds(vector));
+        vectorPaths.put(vector, createVectorPath(vector));
+    }
+
+    /**
+     *
+     * @param vector A vector that was removed from this layer.
+     */
+    public void vectorRemoved(BoardVector vector) {
+        vectorIndex.remove(vector);
+        vectorPaths.remove(vector);
+    }
+
+    /**
+     * Finds the sprites whose images intersect a region.
+     *
+     * @param region A region in board pixels, null for the whole layer.
+     * @return The sprites found, in no particular order.
+     */
+    public List<BoardSprite> findSprites(Rectangle region) {
+        ensureIndexed();
+
+        if (region == null) {
+            return new ArrayList<>(layer.getSprites());
+        }
+
+        List<BoardSprite> sprites = new ArrayList<>();
+        spriteIndex.query(region, sprites);
+
+        return sprites;
+    }
+
+    /**
+     * Finds the vectors that may be drawn within a region.
+     *
+     * @param region A region in board pixels, null for the whole layer.
+     * @return The vectors found, in no particular order.
+     */
+    public List<BoardVector> findVectors(Rectangle region) {
+        ensureIndexed();
+
+        if (region == null) {
+            return new ArrayList<>(layer.getVectors());
+        }
+
+        List<BoardVector> vectors = new ArrayList<>();
+        vectorIndex.query(region, vectors);
+
+        return vectors;
+    }
+
+    /**
+     * Finds the sprite drawn at a point, sprites further down the board are
+     * drawn over those above them and are found first.
+     *
+     * @param x X coordinate in board pixels.
+     * @param y Y coordinate in board pixels.
+     * @return The sprite, or null if there is none.
+     */
+    public BoardSprite findSpriteAt(int x, int y) {
+        ensureIndexed();
+
+        BoardSprite found = null;
+        for (BoardSprite sprite : spriteIndex.query(x, y, 0)) {
+            if (getSpriteBounds(sprite).contains(x, y)
+                    && (found == null || sprite.getY() >= found.getY())) {
+                found = sprite;
             }
         }
+
+        return found;
+    }
+
+    /**
+     * Finds the vector with a line closest to a point.
+     *
+     * @param x X coordinate in board pixels.
+     * @param y Y coordinate in board pixels.
+     * @return The vector, or null if none are within reach of the point.
+     */
+    public BoardVector findVectorAt(int x, int y) {
+        ensureIndexed();
+
+        BoardVector found = null;
+        double closest = VECTOR_HIT_DISTANCE;
+        for (BoardVector vector : vectorIndex.query(x, y, VECTOR_HIT_DISTANCE)) {
+            double distance = getDistance(vector, x, y);
+
+            if (distance <= closest) {
+                found = vector;
+                closest = distance;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Removes the vector closest to a point from this layer.
+     *
+     * @param x X coordinate in board pixels.
+     * @param y Y coordinate in board pixels.
+     * @return The vector removed, or null if there was none.
+     */
+    public BoardVector removeVectorAt(int x, int y) {
+        BoardVector vector = findVectorAt(x, y);
+
+        if (vector != null) {
+            layer.getVectors().remove(vector);
+            vectorRemoved(vector);
+        }
+
+        return vector;
+    }
+
+    /**
+     * Rebuilds the indices if sprites or vectors have been added to or
+     * removed from the layer without this view being told.
+     */
+    private void ensureIndexed() {
+        if (spriteIndex.size() != layer.getSprites().size()
+                || vectorIndex.size() != layer.getVectors().size()) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() {
+        spriteIndex.clear();
+        drawList.clear();
+        for (BoardSprite sprite : layer.getSprites()) {
+            spriteChanged(sprite);
+        }
+
+        vectorIndex.clear();
+        vectorPaths.clear();
+        for (BoardVector vector : layer.getVectors()) {
+            vectorChanged(vector);
+        }
+    }
+
+    /**
+     * Gets the area a sprite is drawn over, see {@link #drawSprites}.
+     *
+     * @param sprite The sprite.
+     * @return Its bounds in board pixels.
+     */
+    public Rectangle getSpriteBounds(BoardSprite sprite) {
+        int width;
+        int height;
+
+        SpritePreviewCache previews = getSpritePreviews();
+        if (previews != null) {
+            BufferedImage frame = previews.getFrame(sprite);
+            width = frame.getWidth();
+            height = frame.getHeight();
+        } else {
+            width = layer.getBoard().getTileWidth();
+            height = layer.getBoard().getTileHeight();
+        }
+
+        // Include the selection outline drawn around the image.
+        return new Rectangle(sprite.getX() - (width / 2),
+                sprite.getY() - (height / 2), width + 1, height + 1);
+    }
+
+    /**
+     * Gets the area a vector is drawn over, including the width of its lines.
+     *
+     * @param vector The vector.
+     * @return Its bounds in board pixels.
+     */
+    public static Rectangle getVectorBounds(BoardVector vector) {
+        int count = vector.getPointCount();
+
+        if (count == 0) {
+            return new Rectangle(0, 0, 1, 1);
+        }
+
+        Rectangle bounds = new Rectangle(vector.getPointX(0),
+                vector.getPointY(0), 1, 1);
+        for (int i = 1; i < count; i++) {
+            bounds.add(new Rectangle(vector.getPointX(i), vector.getPointY(i),
+                    1, 1));
+        }
+
+        bounds.grow(VECTOR_HIT_DISTANCE, VECTOR_HIT_DISTANCE);
+
+        return bounds;
+    }
+
+    private static double getDistance(BoardVector vector, int x, int y) {
+        int count = vector.getPointCount();
+        double distance = Double.MAX_VALUE;
+
+        if (count == 1) {
+            return Point2D.distance(x, y, vector.getPointX(0),
+                    vector.getPointY(0));
+        }
+
+        int segments = vector.isClosed() ? count : count - 1;
+        for (int i = 0; i < segments; i++) {
+            int next = (i + 1) % count;
+
+            distance = Math.min(distance, Line2D.ptSegDist(
+                    vector.getPointX(i), vector.getPointY(i),
+                    vector.getPointX(next), vector.getPointY(next), x, y));
+        }
+
+        return distance;
     }
 
     /**
@@ -350,14 +818,17 @@ public class BoardLayerView {
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP,
                 opacity));
 
-        // Draw Vectors
-        ArrayList<BoardVector> vectors = layer.getVectors();
+        // Draw only the vectors that reach into the clip.
+        Rectangle clip = g.getClipBounds();
+        List<BoardVector> vectors = layer.getVectors();
+        if (clip != null) {
+            ensureIndexed();
+            visibleVectors.clear();
+            vectorIndex.query(clip, visibleVectors);
+            vectors = visibleVectors;
+        }
 
         for (BoardVector vector : vectors) {
-            if (vector.isSelected()) {
-                g.setStroke(new BasicStroke(3.0f)); // Draw it thicker.
-            }
-
             switch (vector.getType()) {
                 case PASSABLE:
                     g.setColor(Color.YELLOW);
@@ -368,12 +839,19 @@ public class BoardLayerView {
                 default:
             }
 
-            drawVectorLines(g, vector);
-
-            if (vector.isSelected()) {
-                g.setStroke(new BasicStroke(1.0f)); // Return to normal stroke.
+            Path2D path = vectorPaths.get(vector);
+            if (path == null) {
+                path = createVectorPath(vector);
+                vectorPaths.put(vector, path);
             }
+
+            // Draw selected vectors thicker.
+            g.setStroke(vector.isSelected() ? SELECTED_STROKE : NORMAL_STROKE);
+            g.draw(path);
         }
+
+        visibleVectors.clear();
+        g.setStroke(NORMAL_STROKE);
     }
 
     /**
@@ -384,86 +862,64 @@ public class BoardLayerView {
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP,
                 opacity));
 
-        List<BoardSprite> sprites = layer.getSprites();
-        sprites.sort((BoardSprite a, BoardSprite b) -> a.getY() - b.getY());
-        sprites.stream().forEach((sprite) -> {
-            int x = (int) sprite.getX();
-            int y = (int) sprite.getY();
-
-            try {
-                // Attempt to get the south facing frame.
-                BufferedImage frame = sprite.getSouthImage();
-
-                int width = frame.getWidth();
-                int height = frame.getHeight();
-                int xShift = x - (width / 2);
-                int yShift = y - (height / 2);
-                g.drawImage(frame, xShift, yShift, null);
-
-                // If the sprite has an animation frame.
-                if (sprite.isSelected()) {
-                    g.setColor(Color.BLUE);
-                    g.drawRect(xShift, yShift, width, height);
-                }
-            } catch (NullPointerException | IndexOutOfBoundsException e) {
-                int tileWidth = layer.getBoard().getTileWidth();
-                int tileHeight = layer.getBoard().getTileHeight();
-                int xShift = x - (tileWidth / 2);
-                int yShift = y - (tileHeight / 2);
-                g.setColor(Color.WHITE);
-                g.fillRect(xShift, yShift, tileWidth, tileHeight);
-
-                // Used when the sprite does not have an animation frame.
-                if (sprite.isSelected()) {
-                    g.setColor(Color.BLUE);
-                    g.drawRect(xShift, yShift, tileWidth, tileHeight);
-                }
+        SpritePreviewCache previews = getSpritePreviews();
+        if (previews == null) {
+            return;
+        }
+
+        ensureIndexed();
+        drawList.forEach(g.getClipBounds(), (sprite) -> {
+            BufferedImage frame = previews.getFrame(sprite);
+
+            int width = frame.getWidth();
+            int height = frame.getHeight();
+            int xShift = sprite.getX() - (width / 2);
+            int yShift = sprite.getY() - (height / 2);
+            g.drawImage(frame, xShift, yShift, null);
+
+            if (sprite.isSelected()) {
+                g.setColor(Color.BLUE);
+                g.drawRect(xShift, yShift, width, height);
             }
         });
     }
 
+    private SpritePreviewCache getSpritePreviews() {
+        return parentContainer != null
+                ? parentContainer.getSpritePreviews() : null;
+    }
+
     /**
+     * Builds the lines of a vector, from points 0 > 1, 1 > 2, 2 > 3 etc. and
+     * back to 0 if it is closed. Each line is kept separate so that it is
+     * drawn exactly as a single line would be.
      *
-     *
-     * @param g
      * @param vector
+     * @return
      */
-    private void drawVectorLines(Graphics2D g, BoardVector vector) {
-        // Draw lines from points 0 > 1 , 1 > 2, 2 > 3 etc..
+    private Path2D createVectorPath(BoardVector vector) {
         int count = vector.getPointCount();
+        Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, Math.max(count, 1) * 2);
 
         for (int i = 0; i < count - 1; i++) {
-            int[] points = GuiHelper.ensureVectorVisible(
-                    layer.getBoard(),
-                    vector.getPointX(i),
-                    vector.getPointY(i),
-                    vector.getPointX(i + 1),
-                    vector.getPointY(i + 1)
-            );
-            g.drawLine(
-                    points[0],
-                    points[1],
-                    points[2],
-                    points[3]
-            );
-        }
-
-        if (vector.isClosed()) {
-            // Draw the final lines
-            int[] points = GuiHelper.ensureVectorVisible(
-                    layer.getBoard(),
-                    vector.getPointX(count - 1),
-                    vector.getPointY(count - 1),
-                    vector.getPointX(0),
-                    vector.getPointY(0)
-            );
-            g.drawLine(
-                    points[0],
-                    points[1],
-                    points[2],
-                    points[3]
-            );
+            appendVectorLine(path, vector.getPointX(i), vector.getPointY(i),
+                    vector.getPointX(i + 1), vector.getPointY(i + 1));
+        }
+
+        if (vector.isClosed() && count > 0) {
+            appendVectorLine(path, vector.getPointX(count - 1),
+                    vector.getPointY(count - 1), vector.getPointX(0),
+                    vector.getPointY(0));
         }
+
+        return path;
+    }
+
+    private void appendVectorLine(Path2D path, int x1, int y1, int x2, int y2) {
+        int[] points = GuiHelper.ensureVectorVisible(layer.getBoard(), x1, y1,
+                x2, y2);
+        path.moveTo(points[0], points[1]);
+        path.lineTo(points[2], points[3]);
     }
 
 }
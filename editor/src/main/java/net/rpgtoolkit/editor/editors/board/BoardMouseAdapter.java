@@ -49,6 +49,14 @@ public class BoardMouseAdapter extends MouseAdapter {
                 return;
             }
 
+            // Shift fills every matching tile, control also fills across
+            // diagonals.
+            if (brush instanceof BucketBrush) {
+                BucketBrush bucketBrush = (BucketBrush) brush;
+                bucketBrush.setReplaceAll(e.isShiftDown());
+                bucketBrush.setDiagonal(e.isControlDown());
+            }
+
             int button = e.getButton();
             int x = (int) (e.getX() / editor.getBoardView().getZoom());
             int y = (int) (e.getY() / editor.getBoardView().getZoom());
@@ -85,15 +93,28 @@ public class BoardMouseAdapter extends MouseAdapter {
             int x = (int) (e.getX() / editor.getBoardView().getZoom());
             int y = (int) (e.getY() / editor.getBoardView().getZoom());
 
-            if (brush instanceof ShapeBrush
-                    || brush instanceof SelectionBrush
-                    || brush instanceof CustomBrush
-                    || brush instanceof EraserBrush) {
+            if (brush instanceof SelectionBrush || isStrokeBrush(brush)) {
                 doMouseButton1Dragged(brush, x, y);
             }
         }
     }
 
+    /**
+     *
+     *
+     * @param e
+     */
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        editor.endStroke();
+
+        AbstractBrush brush = MainWindow.getInstance().getCurrentBrush();
+        if (brush instanceof SelectionBrush
+                && e.getButton() == MouseEvent.BUTTON1) {
+            ((SelectionBrush) brush).doMouseButton1Released(editor);
+        }
+    }
+
     /**
      *
      *
@@ -103,9 +124,8 @@ public class BoardMouseAdapter extends MouseAdapter {
     public void mouseMoved(MouseEvent e) {
         int x = (int) (e.getX() / editor.getBoardView().getZoom());
         int y = (int) (e.getY() / editor.getBoardView().getZoom());
-        editor.setCursorTileLocation(editor.getBoardView().getTileCoordinates(x, y));
-        editor.setCursorLocation(new Point(x, y));
-        editor.getBoardView().repaint();
+        editor.updateCursor(editor.getBoardView().getTileCoordinates(x, y),
+                new Point(x, y));
     }
 
     /**
@@ -126,8 +146,12 @@ public class BoardMouseAdapter extends MouseAdapter {
 
         origin = point;
         brush.doMouseButton1Pressed(point, editor);
-        
-        editor.doPaint(brush, point, selection);
+
+        if (isStrokeBrush(brush)) {
+            editor.beginStroke(brush, point, selection);
+        } else {
+            editor.doPaint(brush, point, selection);
+        }
     }
 
     /**
@@ -181,12 +205,22 @@ public class BoardMouseAdapter extends MouseAdapter {
             point = new Point(x, y);
         }
 
-        editor.setCursorTileLocation(point);
-        editor.setCursorLocation(new Point(x, y));
+        editor.updateCursor(point, new Point(x, y));
 
         brush.doMouseButton1Dragged(point, origin, editor);
 
-        editor.doPaint(brush, point, null);
+        if (isStrokeBrush(brush)) {
+            editor.continueStroke(point);
+        }
+    }
+
+    /**
+     * Brushes that paint tiles along the path of a drag.
+     */
+    private boolean isStrokeBrush(AbstractBrush brush) {
+        return brush instanceof ShapeBrush
+                || brush instanceof CustomBrush
+                || brush instanceof EraserBrush;
     }
 
     private boolean checkBrushValid(AbstractBrush brush) {
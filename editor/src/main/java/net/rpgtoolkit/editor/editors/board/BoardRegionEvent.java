@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.EnumSet;
+import java.util.EventObject;
+import java.util.Set;
+
+/**
+ * Describes what changed on a board and where, see {@link BoardChangeBus}.
+ * An event may merge several changes, in which case it covers all of their
+ * layers and regions.
+ */
+public class BoardRegionEvent extends EventObject {
+
+    /**
+     * What kind of change was made, this decides what has to be redrawn.
+     */
+    public enum Change {
+
+        /**
+         * Tiles were set, the cached tiles of the layers are out of date.
+         */
+        TILES,
+        /**
+         * The layers are drawn differently, such as a new opacity, but their
+         * tiles are the same.
+         */
+        APPEARANCE,
+        /**
+         * Something drawn over the board changed, such as a vector or the
+         * start position, nothing cached is out of date.
+         */
+        OVERLAY
+
+    }
+
+    private final int firstLayer;
+    private final int lastLayer;
+    private final Rectangle region;
+    private final Set<Change> changes;
+
+    /**
+     *
+     * @param source The bus that delivered the event.
+     * @param firstLayer The first layer affected, -1 if none are.
+     * @param lastLayer The last layer affected, -1 if none are.
+     * @param region The affected region in tile coordinates, null for the
+     * whole board.
+     * @param changes The kinds of change made.
+     */
+    public BoardRegionEvent(Object source, int firstLayer, int lastLayer,
+            Rectangle region, Set<Change> changes) {
+        super(source);
+        this.firstLayer = firstLayer;
+        this.lastLayer = lastLayer;
+        this.region = region;
+        this.changes = EnumSet.copyOf(changes);
+    }
+
+    /**
+     *
+     * @return The first layer affected, -1 if no layer was.
+     */
+    public int getFirstLayer() {
+        return firstLayer;
+    }
+
+    /**
+     *
+     * @return Number of layers affected, starting at the first.
+     */
+    public int getLayerCount() {
+        return firstLayer < 0 ? 0 : lastLayer - firstLayer + 1;
+    }
+
+    /**
+     *
+     * @return The affected region in tile coordinates, null for the whole
+     * board.
+     */
+    public Rectangle getRegion() {
+        return region == null ? null : new Rectangle(region);
+    }
+
+    /**
+     *
+     * @param change A kind of change.
+     * @return Was a change of this kind made?
+     */
+    public boolean contains(Change change) {
+        return changes.contains(change);
+    }
+
+}
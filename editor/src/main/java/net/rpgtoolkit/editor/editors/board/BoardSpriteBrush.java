@@ -119,6 +119,10 @@ public class BoardSpriteBrush extends AbstractBrush {
 
             board.addSprite(boardSprite);
 
+            if (affectedContainer.getJournal() != null) {
+                affectedContainer.getJournal().recordSpriteAdded(boardSprite);
+            }
+
             int centerX = x - shapeBounds.width / 2;
             int centerY = y - shapeBounds.height / 2;
 
@@ -150,6 +154,16 @@ public class BoardSpriteBrush extends AbstractBrush {
     public void doMouseButton2Pressed(Point point, AssetEditorWindow editor) {
         if (editor instanceof BoardEditor) {
             BoardEditor boardEditor = (BoardEditor) editor;
+            BoardLayerView layer = boardSprite == null ? null
+                    : boardEditor.getBoardView().getLayer(boardSprite.getLayer());
+
+            // Only journal sprites that are actually on the board.
+            if (layer != null && layer.getLayer().getSprites()
+                    .contains(boardSprite)) {
+                boardEditor.getBoardView().getJournal()
+                        .recordSpriteRemoved(boardSprite);
+            }
+
             boardEditor.getBoard().removeSprite(boardSprite);
 
             if (boardSprite == boardEditor.getSelectedObject()) {
@@ -165,8 +179,7 @@ public class BoardSpriteBrush extends AbstractBrush {
             BoardEditor boardEditor = (BoardEditor) editor;
 
             BoardSprite sprite = boardEditor.getBoardView()
-                    .getCurrentSelectedLayer().getLayer()
-                    .findSpriteAt(point.x, point.y);
+                    .getCurrentSelectedLayer().findSpriteAt(point.x, point.y);
             boardSprite = sprite;
             selectSprite(sprite, boardEditor);
         }
@@ -144,6 +144,37 @@ public class BoardVectorBrush extends AbstractBrush {
         g2d.drawLine(points[0], points[1], points[2], points[3]);
     }
 
+    /**
+     * Covers the preview line between the last vector point and the cursor.
+     *
+     * @param view
+     * @return
+     */
+    @Override
+    public Rectangle getPreviewBounds(AbstractBoardView view) {
+        if (boardVector.getPoints().size() < 1) {
+            return null;
+        }
+
+        Point cursor = view.getBoardEditor().getCursorLocation();
+        Point lastVectorPoint = boardVector.getPoints()
+                .get(boardVector.getPoints().size() - 1);
+
+        int[] coordinates = {cursor.x, cursor.y};
+
+        if (MainWindow.getInstance().isSnapToGrid()) {
+            coordinates = view.getBoardEditor().
+                    calculateSnapCoordinates(cursor.x, cursor.y);
+        }
+
+        Rectangle bounds = new Rectangle(lastVectorPoint);
+        bounds.add(coordinates[0], coordinates[1]);
+        bounds.width++;
+        bounds.height++;
+
+        return bounds;
+    }
+
     /**
      *
      *
@@ -193,8 +224,18 @@ public class BoardVectorBrush extends AbstractBrush {
                         calculateSnapCoordinates(x, y);
             }
 
+            // Only the new segment has to be drawn again.
+            Rectangle segment = new Rectangle(coordinates[0], coordinates[1], 0, 0);
+            if (boardVector.getPointCount() > 0) {
+                Point last = boardVector.getPoints()
+                        .get(boardVector.getPointCount() - 1);
+                segment.add(last);
+            }
+
             boardVector.addPoint(coordinates[0], coordinates[1]);
-            boardLayerView.getLayer().getBoard().fireBoardChanged();
+            boardLayerView.vectorChanged(boardVector);
+            affectedContainer.getChangeBus().postPixels(currentLayer, segment,
+                    BoardRegionEvent.Change.OVERLAY);
         }
 
         return null;
@@ -205,8 +246,12 @@ public class BoardVectorBrush extends AbstractBrush {
      */
     public void finish() {
         if (boardVector.getPointCount() < 2) {
-            affectedContainer.getLayer(currentLayer).getLayer()
-                    .getVectors().remove(boardVector);
+            BoardLayerView boardLayerView = affectedContainer.getLayer(currentLayer);
+            boardLayerView.getLayer().getVectors().remove(boardVector);
+            boardLayerView.vectorRemoved(boardVector);
+        } else if (affectedContainer.getJournal() != null) {
+            affectedContainer.getJournal().recordVectorAdded(currentLayer,
+                    boardVector);
         }
 
         boardVector = new BoardVector();
@@ -245,8 +290,18 @@ public class BoardVectorBrush extends AbstractBrush {
                 finish();
             }
 
-            Object result = boardEditor.getBoardView().getCurrentSelectedLayer()
-                    .getLayer().removeVectorAt(point.x, point.y);
+            BoardLayerView layer = boardEditor.getBoardView()
+                    .getCurrentSelectedLayer();
+            BoardVector result = layer.removeVectorAt(point.x, point.y);
+
+            if (result != null) {
+                boardEditor.getBoardView().getJournal().recordVectorRemoved(
+                        layer.getLayer().getNumber(), result);
+                boardEditor.getBoardView().getChangeBus().postPixels(
+                        layer.getLayer().getNumber(),
+                        BoardLayerView.getVectorBounds(result),
+                        BoardRegionEvent.Change.OVERLAY);
+            }
 
             if (result == boardEditor.getSelectedObject()) {
                 boardEditor.getSelectedObject().setSelectedState(false);
@@ -268,7 +323,7 @@ public class BoardVectorBrush extends AbstractBrush {
             } else // We want to select a vector.
             {
                 selectVector(boardEditor.getBoardView().getCurrentSelectedLayer()
-                        .getLayer().findVectorAt(point.x, point.y), boardEditor);
+                        .findVectorAt(point.x, point.y), boardEditor);
             }
         }
 
@@ -9,15 +9,12 @@ package net.rpgtoolkit.editor.editors.board;
 
 import java.awt.AlphaComposite;
 import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.Font;
+import java.awt.Composite;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.RenderingHints;
-import java.awt.font.FontRenderContext;
-import java.awt.geom.Rectangle2D;
+import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 
 import net.rpgtoolkit.common.assets.Board;
@@ -46,6 +43,11 @@ public final class BoardView2D extends AbstractBoardView {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BoardView2D.class);
 
+    /**
+     * Glyphs of the coordinate labels at the current zoom.
+     */
+    private CoordinateLabelAtlas coordinateLabels;
+
     /**
      * Default constructor.
      */
@@ -75,7 +77,14 @@ public final class BoardView2D extends AbstractBoardView {
     /**
      * Overrides the default paintComponent method by first making a call to its
      * super class paintComponent method and then performs its own custom
-     * drawing routines.
+     * drawing routines. Only the part of the board inside the clip of the
+     * graphics context is drawn, so scrolling only pays for the newly exposed
+     * region.
+     *
+     * The layers and sprites are composited into cached chunk images that are
+     * only redrawn where they have been invalidated, the grid, selection, cursor,
+     * vectors, and brush preview are drawn over it as an overlay on every
+     * repaint. Moving the cursor therefore never redraws any tiles.
      *
      * @param g The graphics context to draw to.
      */
@@ -83,52 +92,65 @@ public final class BoardView2D extends AbstractBoardView {
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        Graphics2D g2d = (Graphics2D) g;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = getVisibleRect();
+        }
+
+        Rectangle boardClip = toBoardPixels(clip);
+        if (boardClip.isEmpty()) {
+            return;
+        }
+
+        Graphics2D g2d = (Graphics2D) g.create();
         g2d.transform(affineTransform);
+        g2d.clipRect(boardClip.x, boardClip.y, boardClip.width,
+                boardClip.height);
 
         try {
-            paintBoard();
-        } catch (TilePixelOutOfRangeException e) {
-
+            drawComposite(g2d, boardClip);
+        } catch (TilePixelOutOfRangeException ex) {
+            LOGGER.error("Failed to paint board region=[{}]", boardClip, ex);
         }
 
-        if (bufferedImage != null) {
-            g.drawImage(bufferedImage, 0, 0, null);
-        }
+        paintOverlay(g2d);
 
         if (MainWindow.getInstance().isShowCoordinates()) {
             paintCoordinates(g2d);
         }
 
-        g.dispose();
         g2d.dispose();
     }
 
     /**
-     * Paints the board to the screen using a BufferedImage, it calls multiple
-     * sub methods which each draw part of the board (if they are set to).
+     * Paints the layers and sprites of the board to one of its composited
+     * chunks. Drawing is clipped to the given region of the board.
      *
+     * @param g The graphics context of the chunk, in board pixels.
+     * @param clip The region of the board to draw in board pixels.
      * @throws TilePixelOutOfRangeException Thrown if a tiles pixel value is out
      * of the allowed range.
      */
     @Override
-    protected void paintBoard() throws TilePixelOutOfRangeException {
-        Graphics2D g = bufferedImage.createGraphics();
-
+    protected void paintBoard(Graphics2D g, Rectangle clip)
+            throws TilePixelOutOfRangeException {
         // Draw background first.
-        TransparentDrawer.drawTransparentBackground(
-                g,
-                (board.getWidth() * board.getTileWidth()),
-                (board.getHeight() * board.getTileHeight())
-        );
+        TransparentDrawer.drawTransparentBackground(g, clip);
 
         paintLayers(g);
         paintSprites(g);
-        paintStartPostion(g);
+    }
 
-        // Reset an opcaity changes in the layers.
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP,
-                1.0f));
+    /**
+     * Paints everything that is drawn on top of the composited board, these
+     * change far more often than the tiles underneath them.
+     *
+     * @param g The graphics context to draw on.
+     */
+    private void paintOverlay(Graphics2D g) {
+        Composite composite = g.getComposite();
+
+        paintStartPostion(g);
 
         if (MainWindow.getInstance().isShowGrid()) {
             paintGrid(g);
@@ -136,15 +158,18 @@ public final class BoardView2D extends AbstractBoardView {
 
         if (boardEditor.getSelection() != null) {
             paintSelection(g);
+            g.setComposite(composite);
         }
 
         paintCursor(g);
+        g.setComposite(composite);
 
         if (MainWindow.getInstance().isShowVectors()) {
             paintVectors(g);
         }
 
         paintBrushPreview(g);
+        g.setComposite(composite);
     }
 
     /**
@@ -185,8 +210,11 @@ public final class BoardView2D extends AbstractBoardView {
         }
 
         // Determine lines to draw from clipping rectangle
-        Rectangle clipRectangle = new Rectangle(bufferedImage.getWidth(),
-                bufferedImage.getHeight());
+        Rectangle clipRectangle = g.getClipBounds();
+        if (clipRectangle == null) {
+            clipRectangle = new Rectangle(getPixelWidth(), getPixelHeight());
+        }
+
         GuiHelper.drawGrid(
                 g,
                 board.getTileWidth(),
@@ -255,54 +283,54 @@ public final class BoardView2D extends AbstractBoardView {
      */
     @Override
     protected void paintCoordinates(Graphics2D g) {
-        Dimension tileSize = new Dimension(board.getTileWidth(), board.getTileHeight());
+        int tileWidth = board.getTileWidth();
+        int tileHeight = board.getTileHeight();
 
-        if (tileSize.width <= 0 || tileSize.height <= 0) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
             return;
         }
 
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        // The glyphs are only rendered again when the zoom changes.
+        int fontSize = tileHeight / 4;
+        double zoom = getZoom();
+        if (coordinateLabels == null
+                || !coordinateLabels.matches(fontSize, zoom)) {
+            coordinateLabels = new CoordinateLabelAtlas(fontSize, zoom);
+        }
 
-        // Determine tile size and offset
-        Font font = new Font("SansSerif", Font.PLAIN, tileSize.height / 4);
-        g.setFont(font);
-        FontRenderContext fontRenderContext = g.getFontRenderContext();
+        // Determine area to draw from clipping rectangle
+        Rectangle clipRectangle = g.getClipBounds();
+        if (clipRectangle == null) {
+            clipRectangle = new Rectangle(getPixelWidth(), getPixelHeight());
+        }
 
-        g.setColor(Color.WHITE);
+        int startX = Math.max(0, clipRectangle.x / tileWidth);
+        int startY = Math.max(0, clipRectangle.y / tileHeight);
+        int endX = Math.min(board.getWidth(), (clipRectangle.x
+                + clipRectangle.width + tileWidth - 1) / tileWidth);
+        int endY = Math.min(board.getHeight(), (clipRectangle.y
+                + clipRectangle.height + tileHeight - 1) / tileHeight);
 
-        // Determine area to draw from clipping rectangle
-        Rectangle clipRectangle = new Rectangle(
-                bufferedImage.getWidth(),
-                bufferedImage.getHeight()
-        );
-        int startX = (clipRectangle.x / tileSize.width);
-        int startY = clipRectangle.y / tileSize.height;
-        int endX = (clipRectangle.x + clipRectangle.width) / tileSize.width;
-        int endY = (clipRectangle.y + clipRectangle.height) / tileSize.height;
+        // Draw the labels in screen pixels so that the glyphs are not scaled.
+        AffineTransform transform = g.getTransform();
+        g.scale(1 / zoom, 1 / zoom);
 
-        // Draw the coordinates
-        int gy = startY * tileSize.height;
+        double scaledWidth = tileWidth * zoom;
+        double scaledHeight = tileHeight * zoom;
+        int lineHeight = coordinateLabels.getLineHeight();
 
         for (int y = startY; y < endY; y++) {
-            int gx = startX * tileSize.width;
+            int baseline = (int) (y * scaledHeight
+                    + (scaledHeight + lineHeight) / 2);
 
             for (int x = startX; x < endX; x++) {
-                String coordinates = "(" + x + "," + y + ")";
-                Rectangle2D textSize
-                        = font.getStringBounds(coordinates, fontRenderContext);
-
-                int fx = gx + (int) ((tileSize.width - textSize.getWidth())
-                        / 2);
-                int fy = gy + (int) ((tileSize.height + textSize.getHeight())
-                        / 2);
-
-                g.drawString(coordinates, fx, fy);
-                gx += tileSize.width;
+                int left = (int) (x * scaledWidth + (scaledWidth
+                        - coordinateLabels.getLabelWidth(x, y)) / 2);
+                coordinateLabels.drawLabel(g, x, y, left, baseline);
             }
-
-            gy += tileSize.height;
         }
+
+        g.setTransform(transform);
     }
 
     /**
@@ -339,6 +367,23 @@ public final class BoardView2D extends AbstractBoardView {
      */
     @Override
     protected void paintCursor(Graphics2D g) {
+        Rectangle bounds = getCursorBounds();
+
+        g.setColor(new Color(100, 100, 255));
+        g.drawRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        g.setComposite(AlphaComposite.getInstance(
+                AlphaComposite.SRC_ATOP, 0.2f));
+        g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    /**
+     * Gets the area covered by the cursor in board pixels, it depends on the
+     * current brush, the snap to grid setting, and the cursor location.
+     *
+     * @return The cursor area.
+     */
+    @Override
+    public Rectangle getCursorBounds() {
         AbstractBrush brush = MainWindow.getInstance().getCurrentBrush();
         boolean snap = MainWindow.getInstance().isSnapToGrid();
         Rectangle cursor = brush.getBounds();
@@ -359,15 +404,7 @@ public final class BoardView2D extends AbstractBoardView {
                     - (((int) cursor.getHeight() / 2) * heightMultiplier);
         }
 
-        g.setColor(new Color(100, 100, 255));
-        g.drawRect(
-                centerX,
-                centerY,
-                ((int) cursor.getWidth()) * widthMultiplier,
-                ((int) cursor.getHeight()) * heightMultiplier);
-        g.setComposite(AlphaComposite.getInstance(
-                AlphaComposite.SRC_ATOP, 0.2f));
-        g.fillRect(
+        return new Rectangle(
                 centerX,
                 centerY,
                 ((int) cursor.getWidth()) * widthMultiplier,
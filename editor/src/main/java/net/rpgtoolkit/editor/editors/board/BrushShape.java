@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.geom.Area;
+
+/**
+ * The shapes the pencil and eraser can be given from the Tools menu.
+ */
+public enum BrushShape {
+
+    SQUARE("Square") {
+        @Override
+        public Area create(int size) {
+            return BrushStamp.createRectangle(size, size);
+        }
+    },
+    CIRCLE("Circle") {
+        @Override
+        public Area create(int size) {
+            return BrushStamp.createCircle(size);
+        }
+    },
+    DIAMOND("Diamond") {
+        @Override
+        public Area create(int size) {
+            return BrushStamp.createDiamond(size);
+        }
+    };
+
+    private final String name;
+
+    private BrushShape(String name) {
+        this.name = name;
+    }
+
+    /**
+     *
+     * @param size Width and height of the shape in tiles.
+     * @return The shape in tile coordinates.
+     */
+    public abstract Area create(int size);
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import net.rpgtoolkit.common.assets.Tile;
+
+/**
+ * The cells covered by a brush shape, compiled once into horizontal spans so
+ * that painting does not have to test the shape for every cell. A cell is
+ * covered when its centre lies inside the shape. The spans are relative to
+ * the top left corner of the shape bounds.
+ */
+public final class BrushStamp {
+
+    private final int width;
+    private final int height;
+
+    // Three ints per span, the row, first column and last column.
+    private final int[] spans;
+    private final int spanCount;
+
+    private BrushStamp(int width, int height, int[] spans, int spanCount) {
+        this.width = width;
+        this.height = height;
+        this.spans = spans;
+        this.spanCount = spanCount;
+    }
+
+    /**
+     * Compiles a shape into a stamp.
+     *
+     * @param shape The brush shape in tile coordinates.
+     * @return The stamp.
+     */
+    public static BrushStamp compile(Shape shape) {
+        Rectangle bounds = shape.getBounds();
+        int[] spans = new int[Math.max(3, bounds.height * 3)];
+        int count = 0;
+
+        for (int row = 0; row < bounds.height; row++) {
+            double y = bounds.y + row + 0.5;
+            int start = -1;
+
+            for (int column = 0; column <= bounds.width; column++) {
+                boolean inside = column < bounds.width
+                        && shape.contains(bounds.x + column + 0.5, y);
+
+                if (inside && start < 0) {
+                    start = column;
+                } else if (!inside && start >= 0) {
+                    if ((count + 1) * 3 > spans.length) {
+                        spans = Arrays.copyOf(spans, spans.length * 2);
+                    }
+
+                    spans[count * 3] = row;
+                    spans[count * 3 + 1] = start;
+                    spans[count * 3 + 2] = column - 1;
+                    count++;
+                    start = -1;
+                }
+            }
+        }
+
+        return new BrushStamp(bounds.width, bounds.height, spans, count);
+    }
+
+    /**
+     *
+     * @param width Width in tiles.
+     * @param height Height in tiles.
+     * @return A rectangular brush shape.
+     */
+    public static Area createRectangle(int width, int height) {
+        return new Area(new Rectangle2D.Double(0, 0, width, height));
+    }
+
+    /**
+     *
+     * @param diameter Diameter in tiles.
+     * @return A round brush shape.
+     */
+    public static Area createCircle(int diameter) {
+        return new Area(new Ellipse2D.Double(0, 0, diameter, diameter));
+    }
+
+    /**
+     *
+     * @param size Width and height in tiles.
+     * @return A diamond shaped brush.
+     */
+    public static Area createDiamond(int size) {
+        // Scaled by two so that odd sizes still have their points on the
+        // centre of a tile.
+        Polygon diamond = new Polygon(
+                new int[]{size, 2 * size, size, 0},
+                new int[]{0, size, 2 * size, size}, 4);
+        Area area = new Area(diamond);
+        area.transform(AffineTransform.getScaleInstance(0.5, 0.5));
+
+        return area;
+    }
+
+    /**
+     * Paints the stamp onto a layer, cells outside of the layer are skipped.
+     *
+     * @param layer The layer to paint on.
+     * @param x X coordinate of the top left corner, in tiles.
+     * @param y Y coordinate of the top left corner, in tiles.
+     * @param tile The tile to paint with.
+     */
+    public void paint(BoardLayerView layer, int x, int y, Tile tile) {
+        int layerWidth = layer.getLayer().getBoard().getWidth();
+        int layerHeight = layer.getLayer().getBoard().getHeight();
+
+        for (int i = 0; i < spanCount * 3; i += 3) {
+            int row = y + spans[i];
+            if (row < 0 || row >= layerHeight) {
+                continue;
+            }
+
+            int start = Math.max(0, x + spans[i + 1]);
+            int end = Math.min(layerWidth - 1, x + spans[i + 2]);
+            for (int column = start; column <= end; column++) {
+                layer.setTileAt(column, row, tile);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Width of the stamp in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     *
+     * @return Height of the stamp in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     *
+     * @return Number of spans in the stamp.
+     */
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    /**
+     *
+     * @param x X coordinate relative to the stamp.
+     * @param y Y coordinate relative to the stamp.
+     * @return Does the stamp cover the cell?
+     */
+    public boolean contains(int x, int y) {
+        for (int i = 0; i < spanCount * 3; i += 3) {
+            if (spans[i] == y && x >= spans[i + 1] && x <= spans[i + 2]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
@@ -11,7 +11,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Shape;
-import java.util.Stack;
+import net.rpgtoolkit.common.assets.Board;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.editor.editors.BoardEditor;
 import net.rpgtoolkit.editor.ui.AssetEditorWindow;
@@ -33,6 +33,17 @@ public class BucketBrush extends AbstractBrush {
      */
     protected Tile oldTile;
 
+    /**
+     * Are diagonal neighbours part of the filled region?
+     */
+    protected boolean diagonal;
+
+    /**
+     * Fill every matching tile on the layer rather than just the connected
+     * region?
+     */
+    protected boolean replaceAll;
+
     /**
      *
      */
@@ -96,6 +107,40 @@ public class BucketBrush extends AbstractBrush {
         oldTile = tile;
     }
 
+    /**
+     *
+     * @return Are diagonal neighbours part of the filled region?
+     */
+    public boolean isDiagonal() {
+        return diagonal;
+    }
+
+    /**
+     *
+     * @param diagonal Should diagonal neighbours be part of the filled
+     * region?
+     */
+    public void setDiagonal(boolean diagonal) {
+        this.diagonal = diagonal;
+    }
+
+    /**
+     *
+     * @return Is every matching tile on the layer filled?
+     */
+    public boolean isReplaceAll() {
+        return replaceAll;
+    }
+
+    /**
+     *
+     * @param replaceAll Should every matching tile on the layer be filled,
+     * connected or not?
+     */
+    public void setReplaceAll(boolean replaceAll) {
+        this.replaceAll = replaceAll;
+    }
+
     /**
      *
      *
@@ -137,44 +182,46 @@ public class BucketBrush extends AbstractBrush {
             return null;
         }
 
-        oldTile = layer.getLayer().getTileAt(x, y);
+        Board board = layer.getLayer().getBoard();
+        Rectangle bounds = new Rectangle(0, 0, board.getWidth(),
+                board.getHeight());
 
-        if (oldTile == pourTile) {
-            return null;
+        // Clicking inside the selection keeps the fill within it, clicking
+        // outside of it does nothing.
+        if (selection != null) {
+            if (!selection.contains(x, y)) {
+                return null;
+            }
+
+            bounds = bounds.intersection(selection);
         }
 
-        if (selection != null && selection.contains(x, y)) {
-            if (selection.contains(x, y)) {
-                for (int y2 = selection.y; y2 < selection.height + selection.y; y2++) {
-                    for (int x2 = selection.x; x2 < selection.width + selection.x; x2++) {
-                        layer.getLayer().setTileAt(x2, y2, pourTile);
-                    }
-                }
-            }
-            return selection;
-        } else {
-            Rectangle area = new Rectangle(new Point(x, y));
-            Stack<Point> stack = new Stack<>();
+        oldTile = layer.getTileAt(x, y);
 
-            stack.push(new Point(x, y));
+        int oldCode = layer.getTileCode(x, y);
+        if (oldCode == TileCodes.encode(pourTile)) {
+            return null;
+        }
 
-            while (!stack.empty()) {
-                // Remove the next tile from the stack.
-                Point point = stack.pop();
+        // Compare the packed codes, the fill only reads primitive ints.
+        TileStore codes = layer.getTileStore();
 
-                if (layer.getLayer().contains(point.x, point.y)
-                        && layer.getLayer().getTileAt(point.x, point.y).equals(oldTile)) {
-                    layer.getLayer().setTileAt(point.x, point.y, pourTile);
-                    area.add(point);
+        FloodFill.Cells cells = new FloodFill.Cells() {
+            @Override
+            public boolean matches(int cellX, int cellY) {
+                return codes.get(cellX, cellY) == oldCode;
+            }
 
-                    stack.push(new Point(point.x, point.y - 1));
-                    stack.push(new Point(point.x, point.y + 1));
-                    stack.push(new Point(point.x + 1, point.y));
-                    stack.push(new Point(point.x - 1, point.y));
-                }
+            @Override
+            public void fill(int cellX, int cellY) {
+                layer.setTileAt(cellX, cellY, pourTile);
             }
+        };
 
-            return new Rectangle(area.x, area.y, area.width + 1, area.height + 1);
+        if (replaceAll) {
+            return FloodFill.replaceAll(bounds, cells);
+        } else {
+            return FloodFill.fill(bounds, x, y, diagonal, cells);
         }
     }
 
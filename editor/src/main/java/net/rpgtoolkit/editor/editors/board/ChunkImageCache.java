@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.rpgtoolkit.editor.properties.EditorProperties;
+import net.rpgtoolkit.editor.properties.EditorProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A least recently used store for the chunk images that back the board views
+ * and their layers. It is shared by every open board so that the memory used
+ * for rendering stays within a single budget no matter how large the boards
+ * are, chunks that fall out of the cache are simply rendered again the next
+ * time they are needed.
+ *
+ * The budget is read from the editor properties in megabytes.
+ */
+public final class ChunkImageCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkImageCache.class);
+
+    private static final long DEFAULT_BUDGET = 128;
+
+    private static final ChunkImageCache INSTANCE = new ChunkImageCache(
+            readBudget() * 1024 * 1024);
+
+    private final long budget;
+    private long size;
+
+    private final LinkedHashMap<Key, BufferedImage> images
+            = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * Creates a cache with the given budget.
+     *
+     * @param budget Maximum number of bytes of image data to hold.
+     */
+    ChunkImageCache(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Gets the cache shared by all of the board views.
+     *
+     * @return The shared cache.
+     */
+    public static ChunkImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets a cached chunk image, marking it as the most recently used.
+     *
+     * @param owner The object that the chunk belongs to.
+     * @param index Index of the chunk within its owner.
+     * @return The image, or null if it is not cached.
+     */
+    public BufferedImage get(Object owner, int index) {
+        return images.get(new Key(owner, index));
+    }
+
+    /**
+     * Stores a chunk image, the least recently used images are evicted until
+     * the cache is back within its budget. The image that was just stored is
+     * never evicted by this call.
+     *
+     * @param owner The object that the chunk belongs to.
+     * @param index Index of the chunk within its owner.
+     * @param image The rendered chunk.
+     */
+    public void put(Object owner, int index, BufferedImage image) {
+        Key key = new Key(owner, index);
+        BufferedImage previous = images.put(key, image);
+
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+
+        size += sizeOf(image);
+
+        Iterator<Map.Entry<Key, BufferedImage>> iterator
+                = images.entrySet().iterator();
+        while (size > budget && iterator.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = iterator.next();
+
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+
+            size -= sizeOf(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes a single chunk image.
+     *
+     * @param owner The object that the chunk belongs to.
+     * @param index Index of the chunk within its owner.
+     */
+    public void remove(Object owner, int index) {
+        BufferedImage image = images.remove(new Key(owner, index));
+
+        if (image != null) {
+            size -= sizeOf(image);
+        }
+    }
+
+    /**
+     * Removes all of the chunk images that belong to an owner, used when a
+     * board or layer is closed.
+     *
+     * @param owner The owner to release.
+     */
+    public void removeAll(Object owner) {
+        Iterator<Map.Entry<Key, BufferedImage>> iterator
+                = images.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = iterator.next();
+
+            if (entry.getKey().owner == owner) {
+                size -= sizeOf(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Number of bytes of image data currently held.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @return Maximum number of bytes of image data held.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        // Chunks are always stored in one of the packed int formats.
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static long readBudget() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_BOARD_CACHE_SIZE);
+
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid board cache size value=[{}]", value, ex);
+            }
+        }
+
+        return DEFAULT_BUDGET;
+    }
+
+    private static final class Key {
+
+        private final Object owner;
+        private final int index;
+
+        private Key(Object owner, int index) {
+            this.owner = owner;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) object;
+            return owner == other.owner && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(owner) * 31 + index;
+        }
+
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+/**
+ * A {@link TileStore} that keeps its chunks on the heap.
+ *
+ * Chunks that hold no tiles all share a single empty chunk, so sparse layers
+ * cost little more than the chunk table. Copies share their chunks with the
+ * original until either side writes to one, which makes cloning a layer or
+ * taking a snapshot of it proportional to the number of chunks rather than
+ * the number of tiles.
+ */
+public final class ChunkedTileStore implements TileStore {
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+
+    // Shared by every empty chunk, it is never written to.
+    private static final int[] EMPTY_CHUNK = new int[CHUNK_AREA];
+
+    private final int width;
+    private final int height;
+    private final int columns;
+    private final int rows;
+
+    private final int[][] chunks;
+    // Chunks that only this store refers to and so can be written in place.
+    private final boolean[] owned;
+    // Number of non empty tiles in each chunk.
+    private final int[] counts;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param width Width of the layer in tiles.
+     * @param height Height of the layer in tiles.
+     */
+    public ChunkedTileStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        columns = (width + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        rows = (height + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+
+        chunks = new int[columns * rows][];
+        owned = new boolean[chunks.length];
+        counts = new int[chunks.length];
+
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = EMPTY_CHUNK;
+        }
+    }
+
+    private ChunkedTileStore(ChunkedTileStore other) {
+        width = other.width;
+        height = other.height;
+        columns = other.columns;
+        rows = other.rows;
+
+        chunks = other.chunks.clone();
+        owned = new boolean[chunks.length];
+        counts = other.counts.clone();
+    }
+
+    /**
+     * Copies this store, no tiles are copied until either store is written.
+     *
+     * @return The copy.
+     */
+    @Override
+    public ChunkedTileStore copy() {
+        // Neither side may write to the shared chunks in place from now on.
+        for (int i = 0; i < owned.length; i++) {
+            owned[i] = false;
+        }
+
+        return new ChunkedTileStore(this);
+    }
+
+    /**
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @return The code of the tile at the position.
+     */
+    @Override
+    public int get(int x, int y) {
+        return chunks[(y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT)]
+                [((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    /**
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @param code The new code of the tile at the position.
+     */
+    @Override
+    public void set(int x, int y, int code) {
+        int index = (y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT);
+        int offset = ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+        int[] chunk = chunks[index];
+        int old = chunk[offset];
+
+        if (old == code) {
+            return;
+        }
+
+        if (chunk == EMPTY_CHUNK) {
+            chunk = new int[CHUNK_AREA];
+            chunks[index] = chunk;
+            owned[index] = true;
+        } else if (!owned[index]) {
+            chunk = chunk.clone();
+            chunks[index] = chunk;
+            owned[index] = true;
+        }
+
+        chunk[offset] = code;
+
+        if (old == TileCodes.EMPTY) {
+            counts[index]++;
+        } else if (code == TileCodes.EMPTY && --counts[index] == 0) {
+            chunks[index] = EMPTY_CHUNK;
+            owned[index] = false;
+        }
+    }
+
+    /**
+     * Gets the codes of a chunk directly, without copying them.
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @return The codes of the chunk.
+     */
+    @Override
+    public int[] getChunk(int chunkX, int chunkY) {
+        return chunks[chunkY * columns + chunkX];
+    }
+
+    /**
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @return Does the chunk hold no tiles?
+     */
+    @Override
+    public boolean isEmptyChunk(int chunkX, int chunkY) {
+        return chunks[chunkY * columns + chunkX] == EMPTY_CHUNK;
+    }
+
+    @Override
+    public void dispose() {
+
+    }
+
+    /**
+     *
+     * @return Number of chunks that hold at least one tile.
+     */
+    public int getAllocatedChunks() {
+        int allocated = 0;
+        for (int[] chunk : chunks) {
+            if (chunk != EMPTY_CHUNK) {
+                allocated++;
+            }
+        }
+
+        return allocated;
+    }
+
+    /**
+     *
+     * @return Width of the layer in tiles.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     *
+     * @return Height of the layer in tiles.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     *
+     * @return Number of chunk columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     *
+     * @return Number of chunk rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+}
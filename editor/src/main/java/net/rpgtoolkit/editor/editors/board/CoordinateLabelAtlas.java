@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * The glyphs needed for tile coordinate labels such as "(12,7)" rendered once
+ * into a single image, so that drawing a label is a handful of image copies
+ * rather than laying out and measuring a string. Labels are built digit by
+ * digit from the coordinates without creating any strings.
+ *
+ * The glyphs are rendered at the size they appear on screen, an atlas is only
+ * valid for the font size and zoom it was created for.
+ */
+public final class CoordinateLabelAtlas {
+
+    private static final String GLYPHS = "0123456789(,)-";
+
+    private static final int OPEN = 10;
+    private static final int COMMA = 11;
+    private static final int CLOSE = 12;
+    private static final int MINUS = 13;
+
+    private final int fontSize;
+    private final double scale;
+
+    private final BufferedImage image;
+    private final int[] offsets = new int[GLYPHS.length()];
+    private final int[] advances = new int[GLYPHS.length()];
+    private final int ascent;
+    private final int lineHeight;
+
+    /**
+     *
+     * @param fontSize Size of the font in board pixels.
+     * @param scale Zoom the labels are drawn at.
+     */
+    public CoordinateLabelAtlas(int fontSize, double scale) {
+        this.fontSize = fontSize;
+        this.scale = scale;
+
+        Font font = new Font("SansSerif", Font.PLAIN, 1)
+                .deriveFont((float) Math.max(fontSize * scale, 1.0));
+
+        BufferedImage scratch = new BufferedImage(1, 1,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scratch.createGraphics();
+        FontMetrics metrics = g.getFontMetrics(font);
+        g.dispose();
+
+        int width = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            offsets[i] = width;
+            advances[i] = metrics.charWidth(GLYPHS.charAt(i));
+            width += advances[i] + 1; // Keep glyphs from bleeding together.
+        }
+
+        ascent = metrics.getAscent();
+        lineHeight = metrics.getHeight();
+
+        image = new BufferedImage(Math.max(width, 1),
+                Math.max(ascent + metrics.getDescent(), 1),
+                BufferedImage.TYPE_INT_ARGB);
+
+        g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            g.drawString(GLYPHS.substring(i, i + 1), offsets[i], ascent);
+        }
+        g.dispose();
+    }
+
+    /**
+     *
+     * @param fontSize Size of the font in board pixels.
+     * @param scale Zoom the labels are drawn at.
+     * @return Was this atlas created for them?
+     */
+    public boolean matches(int fontSize, double scale) {
+        return this.fontSize == fontSize && this.scale == scale;
+    }
+
+    /**
+     *
+     * @return Height of a line of text in screen pixels.
+     */
+    public int getLineHeight() {
+        return lineHeight;
+    }
+
+    /**
+     *
+     * @param x X coordinate of the tile.
+     * @param y Y coordinate of the tile.
+     * @return Width of the label in screen pixels.
+     */
+    public int getLabelWidth(int x, int y) {
+        return advances[OPEN] + getNumberWidth(x) + advances[COMMA]
+                + getNumberWidth(y) + advances[CLOSE];
+    }
+
+    /**
+     * Draws the label of a tile.
+     *
+     * @param g Graphics context in screen pixels.
+     * @param x X coordinate of the tile.
+     * @param y Y coordinate of the tile.
+     * @param left Left edge of the label.
+     * @param baseline Baseline of the label.
+     */
+    public void drawLabel(Graphics2D g, int x, int y, int left, int baseline) {
+        int top = baseline - ascent;
+
+        left = drawGlyph(g, OPEN, left, top);
+        left = drawNumber(g, x, left, top);
+        left = drawGlyph(g, COMMA, left, top);
+        left = drawNumber(g, y, left, top);
+        drawGlyph(g, CLOSE, left, top);
+    }
+
+    private int getNumberWidth(int value) {
+        int width = 0;
+
+        if (value < 0) {
+            width += advances[MINUS];
+        }
+
+        long remaining = Math.abs((long) value);
+        do {
+            width += advances[(int) (remaining % 10)];
+            remaining /= 10;
+        } while (remaining > 0);
+
+        return width;
+    }
+
+    private int drawNumber(Graphics2D g, int value, int left, int top) {
+        if (value < 0) {
+            left = drawGlyph(g, MINUS, left, top);
+        }
+
+        long remaining = Math.abs((long) value);
+        long divisor = 1;
+        while (remaining / divisor >= 10) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            left = drawGlyph(g, (int) (remaining / divisor % 10), left, top);
+        }
+
+        return left;
+    }
+
+    private int drawGlyph(Graphics2D g, int glyph, int left, int top) {
+        int width = advances[glyph] + 1;
+
+        g.drawImage(image, left, top, left + width, top + image.getHeight(),
+                offsets[glyph], 0, offsets[glyph] + width, image.getHeight(),
+                null);
+
+        return left + advances[glyph];
+    }
+
+}
@@ -168,7 +168,7 @@ public class CustomBrush extends AbstractBrush {
                     break;
                 }
 
-                layer.getLayer().setTileAt(offsetX, offsetY,
+                layer.setTileAt(offsetX, offsetY,
                         tiles[offsetX - centerX][offsetY - centerY]);
             }
         }
@@ -7,13 +7,10 @@
  */
 package net.rpgtoolkit.editor.editors.board;
 
-import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.Shape;
 import java.awt.geom.Area;
-import java.awt.geom.Rectangle2D;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.editor.editors.BoardEditor;
 import net.rpgtoolkit.editor.ui.AssetEditorWindow;
@@ -23,12 +20,7 @@ import net.rpgtoolkit.editor.ui.AssetEditorWindow;
  *
  * @author Joshua Michael Daly
  */
-public class EraserBrush extends AbstractBrush {
-
-    /**
-     *
-     */
-    protected Area shape;
+public class EraserBrush extends StampBrush {
 
     /**
      *
@@ -40,7 +32,7 @@ public class EraserBrush extends AbstractBrush {
     }
 
     public EraserBrush(Area shape) {
-        this.shape = shape;
+        super(shape);
         paintTile = new Tile();
     }
 
@@ -48,7 +40,6 @@ public class EraserBrush extends AbstractBrush {
         super(abstractBrush);
 
         if (abstractBrush instanceof ShapeBrush) {
-            shape = ((ShapeBrush) abstractBrush).shape;
             paintTile = ((ShapeBrush) abstractBrush).paintTile;
         }
     }
@@ -71,54 +62,11 @@ public class EraserBrush extends AbstractBrush {
         paintTile = tile;
     }
 
-    /**
-     *
-     *
-     * @return
-     */
-    @Override
-    public Rectangle getBounds() {
-        return shape.getBounds();
-    }
-
-    /**
-     *
-     *
-     * @return
-     */
-    @Override
-    public Shape getShape() {
-        return shape;
-    }
-
     @Override
     public boolean isPixelBased() {
         return false;
     }
 
-    /**
-     *
-     *
-     * @param rectangle
-     */
-    public void makeRectangleBrush(Rectangle rectangle) {
-        shape = new Area(new Rectangle2D.Double(rectangle.x, rectangle.y,
-                rectangle.width, rectangle.height));
-    }
-
-    /**
-     *
-     *
-     * @param g2d
-     * @param dimension
-     * @param view
-     */
-    @Override
-    public void drawPreview(Graphics2D g2d, Dimension dimension,
-            AbstractBoardView view) {
-        g2d.fill(shape);
-    }
-
     /**
      *
      *
@@ -164,34 +112,13 @@ public class EraserBrush extends AbstractBrush {
             if (selection.contains(x, y)) {
                 for (int y2 = selection.y; y2 < selection.height + selection.y; y2++) {
                     for (int x2 = selection.x; x2 < selection.width + selection.x; x2++) {
-                        layer.getLayer().setTileAt(x2, y2, paintTile);
+                        layer.setTileAt(x2, y2, paintTile);
                     }
                 }
             }
             return selection;
         } else {
-            Rectangle shapeBounds = shape.getBounds();
-            int centerX = x - shapeBounds.width / 2;
-            int centerY = y - shapeBounds.height / 2;
-
-            for (int layer = 0; layer < affectedLayers; layer++) {
-                BoardLayerView boardLayer = affectedContainer.getLayer(
-                        currentLayer + layer);
-
-                if (boardLayer != null) {
-                    for (int i = 0; i <= shapeBounds.height + 1; i++) {
-                        for (int j = 0; j <= shapeBounds.width + 1; j++) {
-                            if (shape.contains(i, j)) {
-                                boardLayer.getLayer().setTileAt(j + centerX, i + centerY,
-                                        paintTile);
-                            }
-                        }
-                    }
-                }
-            }
-
-            return new Rectangle(
-                    centerX, centerY, shapeBounds.width, shapeBounds.height);
+            return paintStamp(x, y, paintTile);
         }
     }
 
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A scanline flood fill over a rectangular grid of cells. Each step fills a
+ * whole horizontal span and only seeds the rows above and below it once per
+ * run of matching cells, so the work stack holds spans rather than cells and
+ * no objects are created per filled cell. The fill never leaves the given
+ * bounds, which is how it is clipped to the active selection.
+ */
+public final class FloodFill {
+
+    /**
+     * The cells being filled.
+     */
+    public interface Cells {
+
+        /**
+         *
+         * @param x X coordinate of the cell.
+         * @param y Y coordinate of the cell.
+         * @return Should the cell be filled?
+         */
+        boolean matches(int x, int y);
+
+        /**
+         * Fills a single cell, each cell is filled at most once.
+         *
+         * @param x X coordinate of the cell.
+         * @param y Y coordinate of the cell.
+         */
+        void fill(int x, int y);
+
+    }
+
+    private FloodFill() {
+
+    }
+
+    /**
+     * Fills the region of matching cells connected to a starting cell.
+     *
+     * @param bounds The cells that may be filled, e.g. the layer or the
+     * selection.
+     * @param x X coordinate of the starting cell.
+     * @param y Y coordinate of the starting cell.
+     * @param diagonal Are diagonal neighbours connected?
+     * @param cells The cells to fill.
+     * @return The bounds of the filled cells, or null if nothing was filled.
+     */
+    public static Rectangle fill(Rectangle bounds, int x, int y,
+            boolean diagonal, Cells cells) {
+        if (!bounds.contains(x, y) || !cells.matches(x, y)) {
+            return null;
+        }
+
+        int minX = bounds.x;
+        int maxX = bounds.x + bounds.width - 1;
+        int minY = bounds.y;
+        int maxY = bounds.y + bounds.height - 1;
+
+        // Cells that have been filled, cleared cells may still match after
+        // being filled, e.g. when the new tile is equal to the old one.
+        BitSet filled = new BitSet(bounds.width * bounds.height);
+
+        IntStack stack = new IntStack();
+        stack.push(x, y);
+
+        int left = x;
+        int right = x;
+        int top = y;
+        int bottom = y;
+
+        while (!stack.isEmpty()) {
+            int seedY = stack.pop();
+            int seedX = stack.pop();
+            int row = (seedY - minY) * bounds.width - minX;
+
+            if (filled.get(row + seedX) || !cells.matches(seedX, seedY)) {
+                continue;
+            }
+
+            int spanLeft = seedX;
+            while (spanLeft > minX && !filled.get(row + spanLeft - 1)
+                    && cells.matches(spanLeft - 1, seedY)) {
+                spanLeft--;
+            }
+
+            int spanRight = seedX;
+            while (spanRight < maxX && !filled.get(row + spanRight + 1)
+                    && cells.matches(spanRight + 1, seedY)) {
+                spanRight++;
+            }
+
+            for (int i = spanLeft; i <= spanRight; i++) {
+                cells.fill(i, seedY);
+            }
+            filled.set(row + spanLeft, row + spanRight + 1);
+
+            left = Math.min(left, spanLeft);
+            right = Math.max(right, spanRight);
+            top = Math.min(top, seedY);
+            bottom = Math.max(bottom, seedY);
+
+            int scanLeft = diagonal ? Math.max(minX, spanLeft - 1) : spanLeft;
+            int scanRight = diagonal ? Math.min(maxX, spanRight + 1) : spanRight;
+
+            if (seedY > minY) {
+                seedRow(scanLeft, scanRight, seedY - 1, row - bounds.width,
+                        filled, cells, stack);
+            }
+            if (seedY < maxY) {
+                seedRow(scanLeft, scanRight, seedY + 1, row + bounds.width,
+                        filled, cells, stack);
+            }
+        }
+
+        return new Rectangle(left, top, right - left + 1, bottom - top + 1);
+    }
+
+    /**
+     * Fills every matching cell within the bounds, whether or not they are
+     * connected.
+     *
+     * @param bounds The cells that may be filled.
+     * @param cells The cells to fill.
+     * @return The bounds of the filled cells, or null if nothing was filled.
+     */
+    public static Rectangle replaceAll(Rectangle bounds, Cells cells) {
+        Rectangle changed = null;
+
+        for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+            for (int x = bounds.x; x < bounds.x + bounds.width; x++) {
+                if (cells.matches(x, y)) {
+                    cells.fill(x, y);
+
+                    if (changed == null) {
+                        changed = new Rectangle(x, y, 1, 1);
+                    } else {
+                        changed.add(new Rectangle(x, y, 1, 1));
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Pushes one seed for every run of unfilled matching cells in a row.
+     */
+    private static void seedRow(int from, int to, int y, int row,
+            BitSet filled, Cells cells, IntStack stack) {
+        boolean inRun = false;
+
+        for (int x = from; x <= to; x++) {
+            boolean open = !filled.get(row + x) && cells.matches(x, y);
+
+            if (open && !inRun) {
+                stack.push(x, y);
+            }
+
+            inRun = open;
+        }
+    }
+
+    /**
+     * A growable stack of ints, coordinates are pushed in pairs.
+     */
+    private static final class IntStack {
+
+        private int[] values = new int[64];
+        private int size;
+
+        private void push(int x, int y) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+
+            values[size++] = x;
+            values[size++] = y;
+        }
+
+        private int pop() {
+            return values[--size];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.rpgtoolkit.common.assets.Board;
+import net.rpgtoolkit.common.assets.BoardLayer;
+import net.rpgtoolkit.common.assets.TileSet;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlas;
+import net.rpgtoolkit.editor.editors.tileset.TileSetUtil;
+
+/**
+ * Keeps the rendered tiles of a single board layer in fixed size chunks so
+ * that a repaint only has to blit the cached chunk images. A chunk is only
+ * re-rasterized after it has been invalidated, which happens when a brush
+ * paints over it or when the layer itself is replaced, or after its image has
+ * been evicted from the shared {@link ChunkImageCache}.
+ *
+ * Zoomed out views draw the layer at a reduced mip level, see
+ * {@link TileMipCache}. Each level of a chunk is rendered lazily, either by
+ * halving the level above it when that is already cached or from the reduced
+ * tile images, so a zoomed out view never needs the full size chunks.
+ */
+public class LayerRenderCache {
+
+    /**
+     * Width and height of a chunk in tiles.
+     */
+    public static final int CHUNK_SIZE = 16;
+
+    /**
+     * Drawn in place of tiles whose tile set is still loading.
+     */
+    private static final Color PLACEHOLDER_COLOR = new Color(128, 128, 128, 128);
+
+    private final BoardLayer layer;
+    private final TileStore tiles;
+
+    private final int columns;
+    private final int rows;
+
+    private final ChunkImageCache cache;
+    private final boolean[][] dirty;
+    private final boolean[] empty;
+
+    /**
+     * Creates a cache for the given layer, all chunks start out dirty.
+     *
+     * @param layer The layer to cache.
+     * @param tiles The packed tiles of the layer.
+     */
+    public LayerRenderCache(BoardLayer layer, TileStore tiles) {
+        this.layer = layer;
+        this.tiles = tiles;
+
+        Board board = layer.getBoard();
+        columns = (board.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        rows = (board.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        cache = ChunkImageCache.getInstance();
+        dirty = new boolean[TileMipCache.LEVELS][columns * rows];
+        empty = new boolean[columns * rows];
+        invalidateAll();
+    }
+
+    /**
+     * Marks every chunk touched by the given tile region as dirty.
+     *
+     * @param region A region in tile coordinates.
+     */
+    public void invalidate(Rectangle region) {
+        if (region == null) {
+            return;
+        }
+
+        int startX = Math.max(0, region.x / CHUNK_SIZE);
+        int startY = Math.max(0, region.y / CHUNK_SIZE);
+        int endX = Math.min(columns - 1,
+                (region.x + Math.max(region.width, 1) - 1) / CHUNK_SIZE);
+        int endY = Math.min(rows - 1,
+                (region.y + Math.max(region.height, 1) - 1) / CHUNK_SIZE);
+
+        for (boolean[] level : dirty) {
+            for (int y = startY; y <= endY; y++) {
+                for (int x = startX; x <= endX; x++) {
+                    level[y * columns + x] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks every chunk of the layer as dirty.
+     */
+    public void invalidateAll() {
+        for (boolean[] level : dirty) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Marks every chunk that uses a tile from the given tile set as dirty, used
+     * when the tile set has finished loading in the background.
+     *
+     * @param tileSet The tile set that has changed.
+     * @return The regions of the chunks that were marked, in tile coordinates.
+     */
+    public List<Rectangle> invalidate(TileSet tileSet) {
+        Board board = layer.getBoard();
+        List<Rectangle> regions = new ArrayList<>();
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                int startX = x * CHUNK_SIZE;
+                int startY = y * CHUNK_SIZE;
+                int endX = Math.min(board.getWidth(), startX + CHUNK_SIZE);
+                int endY = Math.min(board.getHeight(), startY + CHUNK_SIZE);
+
+                if (uses(tileSet, x, y)) {
+                    Rectangle region = new Rectangle(startX, startY,
+                            endX - startX, endY - startY);
+                    invalidate(region);
+                    regions.add(region);
+                }
+            }
+        }
+
+        return regions;
+    }
+
+    /**
+     * Releases all of the cached chunk images of this layer.
+     */
+    public void dispose() {
+        cache.removeAll(this);
+        invalidateAll();
+    }
+
+    /**
+     * Draws the cached chunks that intersect the clip of the graphics context,
+     * re-rasterizing any of them that have been invalidated since the last
+     * draw. Chunks outside the clip are left untouched. The mip level is picked
+     * from the scale of the graphics context.
+     *
+     * @param g The graphics context to draw on.
+     */
+    public void draw(Graphics2D g) {
+        Board board = layer.getBoard();
+        int chunkWidth = CHUNK_SIZE * board.getTileWidth();
+        int chunkHeight = CHUNK_SIZE * board.getTileHeight();
+
+        if (chunkWidth <= 0 || chunkHeight <= 0) {
+            return;
+        }
+
+        AffineTransform transform = g.getTransform();
+        int level = TileMipCache.levelFor(Math.min(
+                Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY())));
+        int scale = 1 << level;
+
+        int startX = 0;
+        int startY = 0;
+        int endX = columns - 1;
+        int endY = rows - 1;
+
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            startX = Math.max(startX, clip.x / chunkWidth);
+            startY = Math.max(startY, clip.y / chunkHeight);
+            endX = Math.min(endX, (clip.x + clip.width - 1) / chunkWidth);
+            endY = Math.min(endY, (clip.y + clip.height - 1) / chunkHeight);
+        }
+
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                BufferedImage image = getChunk(x, y, level);
+
+                if (image != null) {
+                    g.drawImage(image, x * chunkWidth, y * chunkHeight,
+                            image.getWidth() * scale, image.getHeight() * scale,
+                            null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the image of a chunk at the given level, rendering it if it is out
+     * of date or is no longer cached.
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @param level The mip level.
+     * @return The chunk image, or null if the chunk contains no tiles.
+     */
+    private BufferedImage getChunk(int chunkX, int chunkY, int level) {
+        int index = chunkY * columns + chunkX;
+        int key = level * empty.length + index;
+
+        if (!dirty[level][index] && empty[index]) {
+            return null;
+        }
+
+        BufferedImage image = cache.get(this, key);
+
+        if (dirty[level][index] || image == null) {
+            BufferedImage parent = null;
+
+            if (level > 0 && !dirty[level - 1][index]) {
+                parent = cache.get(this, key - empty.length);
+            }
+
+            if (parent != null) {
+                image = TileMipCache.halve(parent);
+            } else {
+                image = rasterize(chunkX, chunkY, level, image);
+                empty[index] = image == null;
+            }
+
+            dirty[level][index] = false;
+
+            if (image == null) {
+                cache.remove(this, key);
+                return null;
+            }
+
+            cache.put(this, key, image);
+        }
+
+        return image;
+    }
+
+    /**
+     * Renders the tiles of one chunk into an image, empty chunks produce no
+     * image at all. The previous image of the chunk is reused if there is one.
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @param level The mip level to render at.
+     * @param image The previous image of the chunk, may be null.
+     * @return The rendered chunk, or null if it contains no tiles.
+     */
+    private BufferedImage rasterize(int chunkX, int chunkY, int level,
+            BufferedImage image) {
+        Board board = layer.getBoard();
+        int tileWidth = board.getTileWidth();
+        int tileHeight = board.getTileHeight();
+        int scale = 1 << level;
+
+        int startX = chunkX * CHUNK_SIZE;
+        int startY = chunkY * CHUNK_SIZE;
+        int endX = Math.min(board.getWidth(), startX + CHUNK_SIZE);
+        int endY = Math.min(board.getHeight(), startY + CHUNK_SIZE);
+
+        // The store uses the same chunks, so empty ones are known up front.
+        if (tiles.isEmptyChunk(chunkX, chunkY)) {
+            return null;
+        }
+
+        if (image == null) {
+            image = new BufferedImage(
+                    (CHUNK_SIZE * tileWidth + scale - 1) / scale,
+                    (CHUNK_SIZE * tileHeight + scale - 1) / scale,
+                    BufferedImage.TYPE_INT_ARGB);
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+
+        int[] codes = tiles.getChunk(chunkX, chunkY);
+
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                int code = codes[(y - startY) * CHUNK_SIZE + x - startX];
+
+                if (code == TileCodes.EMPTY) {
+                    continue;
+                }
+
+                TileSet tileSet = TileCodes.getTileSet(code);
+                int drawX = (x - startX) * tileWidth / scale;
+                int drawY = (y - startY) * tileHeight / scale;
+
+                if (!TileSetUtil.ensureLoaded(tileSet)) {
+                    g.setColor(PLACEHOLDER_COLOR);
+                    g.fillRect(drawX, drawY, (tileWidth + scale - 1) / scale,
+                            (tileHeight + scale - 1) / scale);
+                } else if (level == 0) {
+                    drawTile(g, code, drawX, drawY);
+                } else {
+                    g.drawImage(TileMipCache.getTileImage(
+                            TileCodes.decode(code), level), drawX, drawY, null);
+                }
+            }
+        }
+
+        g.dispose();
+
+        return image;
+    }
+
+    private void drawTile(Graphics2D g, int code, int x, int y) {
+        TileSetAtlas atlas = TileSetAtlas.get(TileCodes.getTileSet(code));
+        int index = TileCodes.getIndex(code);
+
+        if (atlas != null && atlas.contains(index)) {
+            atlas.drawTile(g, index, x, y);
+        } else {
+            TileSetAtlas.drawTile(g, TileCodes.decode(code), x, y);
+        }
+    }
+
+    private boolean uses(TileSet tileSet, int chunkX, int chunkY) {
+        if (tiles.isEmptyChunk(chunkX, chunkY)) {
+            return false;
+        }
+
+        // Cells past the edge of the board are always empty.
+        for (int code : tiles.getChunk(chunkX, chunkY)) {
+            if (TileCodes.isFrom(code, tileSet)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
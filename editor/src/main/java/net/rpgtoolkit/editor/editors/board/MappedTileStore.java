@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TileStore} that keeps its chunks off the heap in a memory-mapped
+ * scratch file, for layers too large to mirror comfortably on the heap. Each
+ * chunk is stored contiguously and the file is mapped in pages of
+ * {@link #PAGE_CHUNKS} chunks. A page is only mapped the first time a tile is
+ * written to it, untouched parts of the layer are never read and are left
+ * sparse in the file, so only the pages that hold tiles become resident.
+ *
+ * The scratch file is deleted when the store is disposed, or failing that
+ * when the editor exits.
+ */
+public final class MappedTileStore implements TileStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedTileStore.class);
+
+    /**
+     * Number of chunks in a mapped page.
+     */
+    public static final int PAGE_CHUNKS = 64;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+    private static final long PAGE_BYTES = (long) PAGE_CHUNKS * CHUNK_AREA * Integer.BYTES;
+
+    // Returned for empty chunks, it is never written to.
+    private static final int[] EMPTY_CHUNK = new int[CHUNK_AREA];
+
+    private final int width;
+    private final int height;
+    private final int columns;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final IntBuffer[] pages;
+
+    // Number of non empty tiles in each chunk, kept on the heap so empty
+    // chunks are answered without touching the file.
+    private final int[] counts;
+    private final int[] chunk = new int[CHUNK_AREA];
+
+    /**
+     * Creates an empty store backed by a new scratch file.
+     *
+     * @param width Width of the layer in tiles.
+     * @param height Height of the layer in tiles.
+     * @throws IOException If the scratch file could not be created.
+     */
+    public MappedTileStore(int width, int height) throws IOException {
+        this.width = width;
+        this.height = height;
+        columns = (width + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        int rows = (height + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+
+        counts = new int[columns * rows];
+        pages = new IntBuffer[(counts.length + PAGE_CHUNKS - 1) / PAGE_CHUNKS];
+
+        file = File.createTempFile("board", ".tiles");
+        file.deleteOnExit();
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+    }
+
+    /**
+     * Copies the store into a new scratch file, only the pages that have
+     * been written are copied.
+     *
+     * @return The copy.
+     * @throws IllegalStateException If the scratch file could not be created.
+     */
+    @Override
+    public MappedTileStore copy() {
+        MappedTileStore copy;
+        try {
+            copy = new MappedTileStore(width, height);
+        } catch (IOException ex) {
+            LOGGER.error("Failed to create tile scratch file for copy.", ex);
+            throw new IllegalStateException("Failed to copy tile store.", ex);
+        }
+
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+
+        for (int i = 0; i < pages.length; i++) {
+            if (pages[i] != null) {
+                IntBuffer source = pages[i].duplicate();
+                source.clear();
+                copy.getPage(i).put(source);
+            }
+        }
+
+        return copy;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        int index = (y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT);
+
+        if (counts[index] == 0) {
+            return TileCodes.EMPTY;
+        }
+
+        return pages[index / PAGE_CHUNKS].get(offsetOf(index, x, y));
+    }
+
+    @Override
+    public void set(int x, int y, int code) {
+        int index = (y >> CHUNK_SHIFT) * columns + (x >> CHUNK_SHIFT);
+        int offset = offsetOf(index, x, y);
+        int old = get(x, y);
+
+        if (old == code) {
+            return;
+        }
+
+        getPage(index / PAGE_CHUNKS).put(offset, code);
+
+        if (old == TileCodes.EMPTY) {
+            counts[index]++;
+        } else if (code == TileCodes.EMPTY) {
+            counts[index]--;
+        }
+    }
+
+    /**
+     * Gets the codes of a chunk, they are read into an array that is reused
+     * by the next call.
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @return The codes of the chunk.
+     */
+    @Override
+    public int[] getChunk(int chunkX, int chunkY) {
+        int index = chunkY * columns + chunkX;
+
+        if (counts[index] == 0) {
+            return EMPTY_CHUNK;
+        }
+
+        IntBuffer page = pages[index / PAGE_CHUNKS];
+        page.position((index % PAGE_CHUNKS) * CHUNK_AREA);
+        page.get(chunk, 0, CHUNK_AREA);
+
+        return chunk;
+    }
+
+    @Override
+    public boolean isEmptyChunk(int chunkX, int chunkY) {
+        return counts[chunkY * columns + chunkX] == 0;
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = null;
+        }
+
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException ex) {
+            LOGGER.error("Failed to close tile scratch file=[{}]", file, ex);
+        }
+
+        // Some platforms keep the file open until the mapping is collected,
+        // it is then left to be deleted on exit.
+        if (!file.delete()) {
+            LOGGER.debug("Deferred deletion of tile scratch file=[{}]", file);
+        }
+    }
+
+    /**
+     *
+     * @return Number of pages that have been mapped.
+     */
+    public int getMappedPages() {
+        int mapped = 0;
+        for (IntBuffer page : pages) {
+            if (page != null) {
+                mapped++;
+            }
+        }
+
+        return mapped;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    private static int offsetOf(int index, int x, int y) {
+        return (index % PAGE_CHUNKS) * CHUNK_AREA
+                + (((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK));
+    }
+
+    private IntBuffer getPage(int page) {
+        if (pages[page] == null) {
+            try {
+                // Mapping past the end grows the file, the gap stays sparse.
+                pages[page] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        page * PAGE_BYTES, PAGE_BYTES).asIntBuffer();
+            } catch (IOException ex) {
+                LOGGER.error("Failed to map page=[{}] of tile scratch file=[{}]",
+                        page, file, ex);
+                throw new IllegalStateException("Failed to map tile page.", ex);
+            }
+        }
+
+        return pages[page];
+    }
+
+}
@@ -156,4 +156,25 @@ public interface MultiLayerContainer {
      */
     public Iterator<BoardLayerView> iterator();
 
+    /**
+     * Gets the journal that tile changes made to the layers are recorded in.
+     *
+     * @return The journal, or null if changes are not recorded.
+     */
+    public BoardJournal getJournal();
+
+    /**
+     * Gets the bus that changes made to the layers are posted on.
+     *
+     * @return The bus, or null if changes are not posted.
+     */
+    public BoardChangeBus getChangeBus();
+
+    /**
+     * Gets the frames that sprites on the layers are previewed with.
+     *
+     * @return The cache, or null if sprites are not previewed.
+     */
+    public SpritePreviewCache getSpritePreviews();
+
 }
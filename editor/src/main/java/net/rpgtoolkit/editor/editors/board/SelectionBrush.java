@@ -20,6 +20,13 @@ import net.rpgtoolkit.editor.ui.AssetEditorWindow;
  */
 public class SelectionBrush extends CustomBrush {
 
+    /**
+     * The selection as it was when a drag from inside it started, null unless
+     * the selected tiles are being moved.
+     */
+    private Rectangle moveFrom;
+    private Point moveGrab;
+
     /**
      *
      *
@@ -49,12 +56,18 @@ public class SelectionBrush extends CustomBrush {
         if (editor instanceof BoardEditor) {
             BoardEditor boardEditor = (BoardEditor) editor;
 
+            // Dragging from inside the selection moves the tiles under it.
+            Rectangle current = boardEditor.getSelectionExpaned();
+            if (current != null && current.contains(point)) {
+                moveFrom = new Rectangle(boardEditor.getSelection());
+                moveGrab = point;
+                return;
+            }
+
+            moveFrom = null;
+
+            // The selected tiles are only copied when they are asked for.
             boardEditor.setSelection(new Rectangle(point.x, point.y, 0, 0));
-            boardEditor.setSelectedTiles(
-                    boardEditor.createTileLayerFromRegion(
-                            boardEditor.getSelection()
-                    )
-            );
         }
     }
 
@@ -73,17 +86,50 @@ public class SelectionBrush extends CustomBrush {
         if (editor instanceof BoardEditor) {
             BoardEditor boardEditor = (BoardEditor) editor;
 
+            // Only the outline follows the drag, the tiles are moved once
+            // the button is released.
+            if (moveFrom != null) {
+                Rectangle moved = new Rectangle(moveFrom);
+                moved.translate(point.x - moveGrab.x, point.y - moveGrab.y);
+
+                if (!moved.equals(boardEditor.getSelection())) {
+                    boardEditor.setSelection(moved);
+                }
+                return;
+            }
+
             Rectangle select = new Rectangle(origin.x, origin.y, 0, 0);
             select.add(point);
 
             if (!select.equals(boardEditor.getSelection())) {
                 boardEditor.setSelection(select);
             }
-            boardEditor.setSelectedTiles(
-                    boardEditor.createTileLayerFromRegion(
-                            boardEditor.getSelection()
-                    )
-            );
+        }
+    }
+
+    /**
+     * Moves the selected tiles to where the selection was dragged, as a single
+     * undoable edit.
+     *
+     * @param editor
+     */
+    public void doMouseButton1Released(AssetEditorWindow editor) {
+        if (moveFrom == null || !(editor instanceof BoardEditor)) {
+            moveFrom = null;
+            return;
+        }
+
+        BoardEditor boardEditor = (BoardEditor) editor;
+        Rectangle moved = boardEditor.getSelection();
+        int dx = moved.x - moveFrom.x;
+        int dy = moved.y - moveFrom.y;
+
+        boardEditor.setSelection(moveFrom);
+        moveFrom = null;
+        moveGrab = null;
+
+        if (dx != 0 || dy != 0) {
+            boardEditor.moveSelection(dx, dy);
         }
     }
 
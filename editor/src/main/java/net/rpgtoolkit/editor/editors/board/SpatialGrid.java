@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over board pixels that indexes objects by their bounds, so
+ * that finding the objects at a point or in a region only looks at the cells
+ * it covers rather than at every object. Only cells that hold something are
+ * allocated, so objects may lie anywhere, even off the board.
+ *
+ * Objects are compared by identity and must be updated whenever their bounds
+ * change.
+ * @param <T> The type of object indexed.
+ */
+public final class SpatialGrid<T> {
+
+    private final int cellSize;
+
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+    /**
+     *
+     * @param cellSize Width and height of a cell in pixels.
+     */
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds an object, or moves it if it is already indexed.
+     *
+     * @param item The object.
+     * @param bounds Its bounds in board pixels.
+     */
+    public void put(T item, Rectangle bounds) {
+        Entry<T> entry = entries.get(item);
+
+        if (entry != null) {
+            if (entry.bounds.equals(bounds)) {
+                return;
+            }
+
+            unlink(entry);
+            entry.bounds.setBounds(bounds);
+        } else {
+            entry = new Entry<>(item, new Rectangle(bounds));
+            entries.put(item, entry);
+        }
+
+        link(entry);
+    }
+
+    /**
+     *
+     * @param item The object to remove.
+     * @return Was it indexed?
+     */
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+
+        if (entry == null) {
+            return false;
+        }
+
+        unlink(entry);
+
+        return true;
+    }
+
+    /**
+     *
+     * @param item An object.
+     * @return A copy of its indexed bounds, or null if it is not indexed.
+     */
+    public Rectangle getBounds(T item) {
+        Entry<T> entry = entries.get(item);
+
+        return entry == null ? null : new Rectangle(entry.bounds);
+    }
+
+    /**
+     *
+     * @param item An object.
+     * @return Is it indexed?
+     */
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    /**
+     * Collects the objects whose bounds intersect a region, each only once.
+     *
+     * @param region A region in board pixels.
+     * @param result Where to add the objects.
+     */
+    public void query(Rectangle region, Collection<? super T> result) {
+        if (region.isEmpty() || entries.isEmpty()) {
+            return;
+        }
+
+        int startX = cellOf(region.x);
+        int startY = cellOf(region.y);
+        int endX = cellOf(region.x + region.width - 1);
+        int endY = cellOf(region.y + region.height - 1);
+
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                List<Entry<T>> cell = cells.get(key(x, y));
+
+                if (cell == null) {
+                    continue;
+                }
+
+                for (Entry<T> entry : cell) {
+                    Rectangle bounds = entry.bounds;
+
+                    // An object covering several cells is only reported by
+                    // the first of them inside the region.
+                    if (Math.max(cellOf(bounds.x), startX) == x
+                            && Math.max(cellOf(bounds.y), startY) == y
+                            && bounds.intersects(region)) {
+                        result.add(entry.item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the objects whose bounds grown by a distance contain a point.
+     *
+     * @param x X coordinate in board pixels.
+     * @param y Y coordinate in board pixels.
+     * @param distance How far from the point to look, in pixels.
+     * @return The objects found.
+     */
+    public List<T> query(int x, int y, int distance) {
+        List<T> result = new ArrayList<>();
+        query(new Rectangle(x - distance, y - distance, 2 * distance + 1,
+                2 * distance + 1), result);
+
+        return result;
+    }
+
+    /**
+     *
+     * @return Number of objects indexed.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every object.
+     */
+    public void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    private void link(Entry<T> entry) {
+        Rectangle bounds = entry.bounds;
+        int endX = cellOf(bounds.x + Math.max(bounds.width, 1) - 1);
+        int endY = cellOf(bounds.y + Math.max(bounds.height, 1) - 1);
+
+        for (int y = cellOf(bounds.y); y <= endY; y++) {
+            for (int x = cellOf(bounds.x); x <= endX; x++) {
+                Long key = key(x, y);
+                List<Entry<T>> cell = cells.get(key);
+
+                if (cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.put(key, cell);
+                }
+
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry<T> entry) {
+        Rectangle bounds = entry.bounds;
+        int endX = cellOf(bounds.x + Math.max(bounds.width, 1) - 1);
+        int endY = cellOf(bounds.y + Math.max(bounds.height, 1) - 1);
+
+        for (int y = cellOf(bounds.y); y <= endY; y++) {
+            for (int x = cellOf(bounds.x); x <= endX; x++) {
+                Long key = key(x, y);
+                List<Entry<T>> cell = cells.get(key);
+
+                if (cell != null) {
+                    cell.remove(entry);
+
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellOf(int pixel) {
+        return Math.floorDiv(pixel, cellSize);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+        private final Rectangle bounds;
+
+        private Entry(T item, Rectangle bounds) {
+            this.item = item;
+            this.bounds = bounds;
+        }
+
+    }
+
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import net.rpgtoolkit.common.assets.BoardSprite;
+
+/**
+ * The sprites of a layer in the order they are drawn, sorted by Y so that
+ * sprites further down the board are drawn over those above them. Sprites
+ * with the same Y keep the order they were added in. The list is kept sorted
+ * as sprites are added, moved and removed rather than sorted when drawing,
+ * and it is separate from the list held by the BoardLayer, which is never
+ * reordered.
+ *
+ * Drawing only walks the sprites whose Y falls within reach of the region
+ * being drawn, found by binary search.
+ */
+public final class SpriteDrawList {
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<BoardSprite, Entry> index = new IdentityHashMap<>();
+
+    // Tallest sprite seen, how far above or below its Y a sprite can reach.
+    private int reach;
+
+    /**
+     * Adds a sprite, or moves it to its new place if it is already listed.
+     *
+     * @param sprite The sprite.
+     * @param bounds Its bounds in board pixels.
+     */
+    public void put(BoardSprite sprite, Rectangle bounds) {
+        Entry entry = index.get(sprite);
+
+        if (entry != null) {
+            if (entry.y == sprite.getY()) {
+                entry.bounds.setBounds(bounds);
+                reach = Math.max(reach, bounds.height);
+                return;
+            }
+
+            entries.remove(indexOf(entry));
+        } else {
+            entry = new Entry(sprite);
+            index.put(sprite, entry);
+        }
+
+        entry.y = sprite.getY();
+        entry.bounds.setBounds(bounds);
+        reach = Math.max(reach, bounds.height);
+
+        entries.add(upperBound(entry.y), entry);
+    }
+
+    /**
+     *
+     * @param sprite The sprite to remove.
+     * @return Was it listed?
+     */
+    public boolean remove(BoardSprite sprite) {
+        Entry entry = index.remove(sprite);
+
+        if (entry == null) {
+            return false;
+        }
+
+        entries.remove(indexOf(entry));
+
+        return true;
+    }
+
+    /**
+     * Visits the sprites whose bounds intersect a region, in drawing order.
+     *
+     * @param region A region in board pixels, null for every sprite.
+     * @param action Called for each sprite.
+     */
+    public void forEach(Rectangle region, Consumer<BoardSprite> action) {
+        if (region == null) {
+            for (Entry entry : entries) {
+                action.accept(entry.sprite);
+            }
+
+            return;
+        }
+
+        int start = lowerBound(region.y - reach);
+        int end = upperBound(region.y + region.height + reach);
+
+        for (int i = start; i < end; i++) {
+            Entry entry = entries.get(i);
+
+            if (entry.bounds.intersects(region)) {
+                action.accept(entry.sprite);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Number of sprites listed.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every sprite.
+     */
+    public void clear() {
+        entries.clear();
+        index.clear();
+        reach = 0;
+    }
+
+    private int indexOf(Entry entry) {
+        // Only the sprites with the same Y need to be searched.
+        for (int i = lowerBound(entry.y); i < entries.size(); i++) {
+            if (entries.get(i) == entry) {
+                return i;
+            }
+        }
+
+        throw new IllegalStateException("Sprite is missing from the draw list.");
+    }
+
+    /**
+     *
+     * @param y A Y coordinate.
+     * @return Index of the first entry with a Y of at least y.
+     */
+    private int lowerBound(int y) {
+        int low = 0;
+        int high = entries.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (entries.get(middle).y < y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     *
+     * @param y A Y coordinate.
+     * @return Index of the first entry with a Y greater than y.
+     */
+    private int upperBound(int y) {
+        int low = 0;
+        int high = entries.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (entries.get(middle).y <= y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static final class Entry {
+
+        private final BoardSprite sprite;
+        private final Rectangle bounds = new Rectangle();
+        // The Y the entry is sorted by, the sprite may have moved since.
+        private int y;
+
+        private Entry(BoardSprite sprite) {
+            this.sprite = sprite;
+        }
+
+    }
+
+}
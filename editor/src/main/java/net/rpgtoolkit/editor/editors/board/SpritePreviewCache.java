@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.rpgtoolkit.common.assets.BoardSprite;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The frames the sprites of a board are previewed with, the south facing
+ * frame of each sprite's item. A frame is resolved once per item file when it
+ * is first needed and kept as a display compatible image, so painting sprites
+ * never has to go through their animations. Sprites without a frame all share
+ * a single tile sized placeholder.
+ *
+ * A frame is checked again when a sprite is added or its file changes, and
+ * only replaced if the item now has a different south frame, see
+ * {@link #refresh(BoardSprite)}.
+ */
+public final class SpritePreviewCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpritePreviewCache.class);
+
+    private final BufferedImage placeholder;
+    private final Map<String, Frame> frames = new HashMap<>();
+
+    /**
+     *
+     * @param tileWidth Width of the placeholder.
+     * @param tileHeight Height of the placeholder.
+     */
+    public SpritePreviewCache(int tileWidth, int tileHeight) {
+        placeholder = new BufferedImage(Math.max(tileWidth, 1),
+                Math.max(tileHeight, 1), BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = placeholder.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, placeholder.getWidth(), placeholder.getHeight());
+        g.dispose();
+    }
+
+    /**
+     * Gets the frame a sprite is previewed with, resolving it if it has not
+     * been already.
+     *
+     * @param sprite The sprite.
+     * @return Its frame, or the placeholder if it has none.
+     */
+    public BufferedImage getFrame(BoardSprite sprite) {
+        String key = sprite.getFileName();
+
+        if (key == null || key.isEmpty()) {
+            return placeholder;
+        }
+
+        Frame frame = frames.get(key);
+
+        if (frame == null) {
+            frame = resolve(sprite);
+            frames.put(key, frame);
+        }
+
+        return frame.image;
+    }
+
+    /**
+     * Resolves the frame of a sprite's file again, such as when its item may
+     * have been loaded since the frame was cached. The cached frame is only
+     * replaced if the item's south frame is a different image.
+     *
+     * @param sprite The sprite.
+     * @return Was a cached frame replaced? If so every sprite using the same
+     * file has to be indexed and drawn again.
+     */
+    public boolean refresh(BoardSprite sprite) {
+        String key = sprite.getFileName();
+
+        if (key == null || key.isEmpty()) {
+            return false;
+        }
+
+        Frame cached = frames.get(key);
+
+        // Nothing has been drawn with it yet, it is resolved when needed.
+        if (cached == null) {
+            return false;
+        }
+
+        Frame frame = resolve(sprite);
+
+        if (frame.source == cached.source) {
+            return false;
+        }
+
+        frames.put(key, frame);
+
+        return true;
+    }
+
+    /**
+     * Drops every frame.
+     */
+    public void clear() {
+        frames.clear();
+    }
+
+    private Frame resolve(BoardSprite sprite) {
+        try {
+            BufferedImage source = sprite.getSouthImage();
+
+            if (source != null) {
+                return new Frame(source, TileSetAtlas.toCompatibleImage(source));
+            }
+        } catch (RuntimeException ex) {
+            // The item has no animations or its south animation has no frames.
+            LOGGER.debug("Sprite has no south frame, file=[{}]",
+                    sprite.getFileName(), ex);
+        }
+
+        return new Frame(null, placeholder);
+    }
+
+    /**
+     * A cached frame and the image of the item it was converted from.
+     */
+    private static final class Frame {
+
+        private final BufferedImage source;
+        private final BufferedImage image;
+
+        private Frame(BufferedImage source, BufferedImage image) {
+            this.source = source;
+            this.image = image;
+        }
+
+    }
+
+}
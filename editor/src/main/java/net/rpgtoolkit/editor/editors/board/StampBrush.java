@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import net.rpgtoolkit.common.assets.Tile;
+
+/**
+ * A brush that paints a single tile in a shape, such as the pencil and the
+ * eraser. The shape is compiled into a {@link BrushStamp} whenever it changes,
+ * so painting does not test the shape for every cell.
+ */
+public abstract class StampBrush extends AbstractBrush {
+
+    /**
+     *
+     */
+    protected Area shape;
+
+    /**
+     * The shape compiled into spans, rebuilt whenever the shape changes.
+     */
+    protected BrushStamp stamp;
+
+    /**
+     *
+     */
+    public StampBrush() {
+
+    }
+
+    /**
+     *
+     * @param shape
+     */
+    public StampBrush(Area shape) {
+        this.shape = shape;
+    }
+
+    /**
+     *
+     * @param abstractBrush
+     */
+    public StampBrush(AbstractBrush abstractBrush) {
+        super(abstractBrush);
+
+        if (abstractBrush instanceof StampBrush) {
+            shape = ((StampBrush) abstractBrush).shape;
+            stamp = ((StampBrush) abstractBrush).stamp;
+        }
+    }
+
+    /**
+     *
+     *
+     * @return
+     */
+    @Override
+    public Rectangle getBounds() {
+        return shape.getBounds();
+    }
+
+    /**
+     *
+     *
+     * @return
+     */
+    @Override
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     *
+     *
+     * @param rectangle
+     */
+    public void makeRectangleBrush(Rectangle rectangle) {
+        setShape(new Area(new Rectangle2D.Double(rectangle.x, rectangle.y,
+                rectangle.width, rectangle.height)));
+    }
+
+    /**
+     *
+     * @param brushShape The shape of the brush.
+     * @param size Width and height of the brush in tiles.
+     */
+    public void makeBrush(BrushShape brushShape, int size) {
+        setShape(brushShape.create(size));
+    }
+
+    /**
+     * Sets the brush to any shape, a tile is painted where its centre falls
+     * inside the shape.
+     *
+     * @param shape The new shape in tile coordinates.
+     */
+    public void setShape(Area shape) {
+        this.shape = shape;
+        stamp = BrushStamp.compile(shape);
+    }
+
+    /**
+     *
+     * @return The compiled shape of this brush.
+     */
+    public BrushStamp getStamp() {
+        if (stamp == null) {
+            stamp = BrushStamp.compile(shape);
+        }
+
+        return stamp;
+    }
+
+    /**
+     *
+     *
+     * @param g2d
+     * @param dimension
+     * @param view
+     */
+    @Override
+    public void drawPreview(Graphics2D g2d, Dimension dimension,
+            AbstractBoardView view) {
+        g2d.fill(shape);
+    }
+
+    /**
+     * Paints the stamp centred on a tile onto every affected layer, only
+     * valid between startPaint() and endPaint().
+     *
+     * @param x X coordinate of the centre tile.
+     * @param y Y coordinate of the centre tile.
+     * @param tile The tile to paint with.
+     * @return The region painted.
+     */
+    protected Rectangle paintStamp(int x, int y, Tile tile) {
+        Rectangle shapeBounds = shape.getBounds();
+        int centerX = x - shapeBounds.width / 2;
+        int centerY = y - shapeBounds.height / 2;
+
+        for (int layer = 0; layer < affectedLayers; layer++) {
+            BoardLayerView boardLayer = affectedContainer.getLayer(
+                    currentLayer + layer);
+
+            if (boardLayer != null) {
+                getStamp().paint(boardLayer, centerX, centerY, tile);
+            }
+        }
+
+        return new Rectangle(
+                centerX, centerY, shapeBounds.width, shapeBounds.height);
+    }
+
+}
@@ -47,10 +47,22 @@ public class StartPositionBrush extends AbstractBrush {
     @Override
     public Rectangle doPaint(int x, int y, Rectangle selection) throws Exception {
         Board board = affectedContainer.getLayer(currentLayer).getLayer().getBoard();
+
+        // The marker is drawn centred on the position, redraw a tile around
+        // both the old and the new one.
+        int tileWidth = board.getTileWidth();
+        int tileHeight = board.getTileHeight();
+        Rectangle changed = new Rectangle(board.getStartingPositionX() - tileWidth,
+                board.getStartingPositionY() - tileHeight, 2 * tileWidth,
+                2 * tileHeight);
+        changed.add(new Rectangle(x - tileWidth, y - tileHeight, 2 * tileWidth,
+                2 * tileHeight));
+
         board.setStartingPositionX(x);
         board.setStartingPositionY(y);
         board.setStartingLayer(currentLayer);
-        board.fireBoardChanged();
+        affectedContainer.getChangeBus().postPixels(-1, changed,
+                BoardRegionEvent.Change.OVERLAY);
 
         return null;
     }
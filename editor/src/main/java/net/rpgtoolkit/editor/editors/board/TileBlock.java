@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import net.rpgtoolkit.common.assets.Tile;
+
+/**
+ * A rectangular block of packed tiles, see {@link TileCodes}, copied out of a
+ * layer by a {@link TileSelection}. The codes are stored row by row.
+ */
+public final class TileBlock {
+
+    private final int width;
+    private final int height;
+    private final int[] codes;
+
+    /**
+     * Creates an empty block.
+     *
+     * @param width Width in tiles.
+     * @param height Height in tiles.
+     */
+    public TileBlock(int width, int height) {
+        this.width = width;
+        this.height = height;
+        codes = new int[width * height];
+    }
+
+    /**
+     *
+     * @param x X coordinate within the block.
+     * @param y Y coordinate within the block.
+     * @return The code of the tile.
+     */
+    public int get(int x, int y) {
+        return codes[y * width + x];
+    }
+
+    /**
+     *
+     * @param x X coordinate within the block.
+     * @param y Y coordinate within the block.
+     * @param code The code of the tile.
+     */
+    public void set(int x, int y, int code) {
+        codes[y * width + x] = code;
+    }
+
+    /**
+     * Mirrors the block from left to right in place.
+     */
+    public void flipHorizontal() {
+        for (int row = 0; row < codes.length; row += width) {
+            for (int i = row, j = row + width - 1; i < j; i++, j--) {
+                int code = codes[i];
+                codes[i] = codes[j];
+                codes[j] = code;
+            }
+        }
+    }
+
+    /**
+     * Mirrors the block from top to bottom in place.
+     */
+    public void flipVertical() {
+        int[] row = new int[width];
+
+        for (int i = 0, j = height - 1; i < j; i++, j--) {
+            System.arraycopy(codes, i * width, row, 0, width);
+            System.arraycopy(codes, j * width, codes, i * width, width);
+            System.arraycopy(row, 0, codes, j * width, width);
+        }
+    }
+
+    /**
+     *
+     * @return A copy of this block turned a quarter clockwise.
+     */
+    public TileBlock rotate() {
+        TileBlock rotated = new TileBlock(height, width);
+
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int column = height - 1 - y;
+
+            for (int x = 0; x < width; x++) {
+                rotated.codes[x * height + column] = codes[row + x];
+            }
+        }
+
+        return rotated;
+    }
+
+    /**
+     *
+     * @return The tiles of this block, column major like a BoardLayer.
+     */
+    public Tile[][] toTiles() {
+        Tile[][] tiles = new Tile[width][height];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                tiles[x][y] = TileCodes.decode(codes[y * width + x]);
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     *
+     * @return Width in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     *
+     * @return Height in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
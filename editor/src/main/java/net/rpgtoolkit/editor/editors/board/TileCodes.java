@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.rpgtoolkit.common.assets.Tile;
+import net.rpgtoolkit.common.assets.TileSet;
+
+/**
+ * Packs a tile into a single int, the id of its tile set in the upper bits and
+ * its index within the tile set in the lower bits. Code 0 is an empty cell.
+ * Tile sets are given ids the first time one of their tiles is packed and keep
+ * them for the rest of the session, like the TileSetCache they come from.
+ *
+ * This is only used from the event dispatch thread.
+ */
+public final class TileCodes {
+
+    /**
+     * The code of an empty cell.
+     */
+    public static final int EMPTY = 0;
+
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int MAX_TILE_SETS = (1 << (31 - INDEX_BITS)) - 1;
+
+    // Id 0 is reserved for empty cells.
+    private static final List<TileSet> TILE_SETS = new ArrayList<>();
+    private static final Map<TileSet, Integer> IDS = new IdentityHashMap<>();
+
+    static {
+        TILE_SETS.add(null);
+    }
+
+    private TileCodes() {
+
+    }
+
+    /**
+     *
+     * @param tile A tile, may be null.
+     * @return The code of the tile.
+     */
+    public static int encode(Tile tile) {
+        if (tile == null || tile.getTileSet() == null) {
+            return EMPTY;
+        }
+
+        return (idOf(tile.getTileSet()) << INDEX_BITS)
+                | (tile.getIndex() & INDEX_MASK);
+    }
+
+    /**
+     *
+     * @param code A tile code.
+     * @return The tile, or null for an empty cell.
+     */
+    public static Tile decode(int code) {
+        TileSet tileSet = getTileSet(code);
+
+        if (tileSet == null) {
+            return null;
+        }
+
+        return tileSet.getTile(getIndex(code));
+    }
+
+    /**
+     *
+     * @param code A tile code.
+     * @return The tile set of the tile, or null for an empty cell.
+     */
+    public static TileSet getTileSet(int code) {
+        return TILE_SETS.get(code >>> INDEX_BITS);
+    }
+
+    /**
+     *
+     * @param code A tile code.
+     * @return The id of the tile set of the tile, 0 for an empty cell.
+     */
+    public static int getTileSetId(int code) {
+        return code >>> INDEX_BITS;
+    }
+
+    /**
+     *
+     * @param id A tile set id.
+     * @return The tile set with the id, or null if there is none.
+     */
+    public static TileSet getTileSetById(int id) {
+        return id > 0 && id < TILE_SETS.size() ? TILE_SETS.get(id) : null;
+    }
+
+    /**
+     *
+     * @param tileSet A tile set.
+     * @return The id of the tile set, or 0 if none of its tiles have been
+     * packed yet.
+     */
+    public static int findId(TileSet tileSet) {
+        Integer id = IDS.get(tileSet);
+
+        return id == null ? 0 : id;
+    }
+
+    /**
+     *
+     * @param code A tile code.
+     * @return The index of the tile within its tile set.
+     */
+    public static int getIndex(int code) {
+        return code & INDEX_MASK;
+    }
+
+    /**
+     *
+     * @param code A tile code.
+     * @param tileSet A tile set.
+     * @return Is the tile in the given tile set?
+     */
+    public static boolean isFrom(int code, TileSet tileSet) {
+        Integer id = IDS.get(tileSet);
+
+        return id != null && code >>> INDEX_BITS == id;
+    }
+
+    private static int idOf(TileSet tileSet) {
+        Integer id = IDS.get(tileSet);
+
+        if (id == null) {
+            if (TILE_SETS.size() > MAX_TILE_SETS) {
+                throw new IllegalStateException("Too many tile sets in use, at most "
+                        + MAX_TILE_SETS + " are supported.");
+            }
+
+            id = TILE_SETS.size();
+            TILE_SETS.add(tileSet);
+            IDS.put(tileSet, id);
+        }
+
+        return id;
+    }
+
+}
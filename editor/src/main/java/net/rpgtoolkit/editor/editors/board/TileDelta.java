@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The cells changed by one edit, kept per layer as a run of packed
+ * (x, y, old, new) ints. The tiles themselves are replaced by indices into a
+ * table held by whoever records the delta.
+ *
+ * Applying the delta backwards walks each run in reverse, so a cell changed
+ * more than once ends up as it was before the first change.
+ */
+final class TileDelta {
+
+    /**
+     * Receives the cells written when a delta is applied.
+     */
+    interface Writer {
+
+        void write(int layer, int x, int y, int index);
+
+    }
+
+    private final Map<Integer, Run> runs = new LinkedHashMap<>();
+
+    /**
+     *
+     * @param layer Number of the layer.
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @param oldIndex Index of the tile that was replaced.
+     * @param newIndex Index of the tile that replaced it.
+     */
+    void add(int layer, int x, int y, int oldIndex, int newIndex) {
+        Run run = runs.get(layer);
+        if (run == null) {
+            run = new Run();
+            runs.put(layer, run);
+        }
+
+        run.add(x, y, oldIndex, newIndex);
+    }
+
+    /**
+     *
+     * @param forward Apply the new tiles, otherwise restore the old ones.
+     * @param writer Where the cells are written.
+     */
+    void apply(boolean forward, Writer writer) {
+        for (Map.Entry<Integer, Run> entry : runs.entrySet()) {
+            int layer = entry.getKey();
+            Run run = entry.getValue();
+            int[] cells = run.cells;
+
+            if (forward) {
+                for (int i = 0; i < run.length; i += 4) {
+                    writer.write(layer, cells[i], cells[i + 1], cells[i + 3]);
+                }
+            } else {
+                for (int i = run.length - 4; i >= 0; i -= 4) {
+                    writer.write(layer, cells[i], cells[i + 1], cells[i + 2]);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Numbers of the layers changed.
+     */
+    Set<Integer> getLayers() {
+        return runs.keySet();
+    }
+
+    /**
+     *
+     * @param layer Number of a layer.
+     * @return The region changed on it in tiles, null if it was not changed.
+     */
+    Rectangle getBounds(int layer) {
+        Run run = runs.get(layer);
+        return run == null ? null : run.bounds;
+    }
+
+    boolean isEmpty() {
+        return runs.isEmpty();
+    }
+
+    /**
+     *
+     * @return Approximate number of bytes held.
+     */
+    long getByteSize() {
+        long bytes = 0;
+        for (Run run : runs.values()) {
+            bytes += run.cells.length * Integer.BYTES;
+        }
+
+        return bytes;
+    }
+
+    private static final class Run {
+
+        private int[] cells = new int[64];
+        private int length;
+        private final Rectangle bounds = new Rectangle(-1, -1);
+
+        private void add(int x, int y, int oldIndex, int newIndex) {
+            if (length + 4 > cells.length) {
+                cells = Arrays.copyOf(cells, cells.length * 2);
+            }
+
+            cells[length++] = x;
+            cells[length++] = y;
+            cells[length++] = oldIndex;
+            cells[length++] = newIndex;
+
+            if (bounds.width < 0) {
+                bounds.setBounds(x, y, 1, 1);
+            } else {
+                bounds.add(new Rectangle(x, y, 1, 1));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.rpgtoolkit.common.assets.Tile;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlas;
+
+/**
+ * Holds reduced copies of tile images for drawing zoomed out boards, level n of
+ * the pyramid is 1/2^n of the original size. Each level is built on first use
+ * by halving the level above it, and the levels of a tile set are dropped along
+ * with its atlas.
+ */
+public final class TileMipCache {
+
+    /**
+     * Number of levels including the full size one, the smallest is 1/16.
+     */
+    public static final int LEVELS = 5;
+
+    private static final Map<TileSetAtlas, Map<Tile, BufferedImage[]>> ATLASES
+            = new WeakHashMap<>();
+
+    private TileMipCache() {
+
+    }
+
+    /**
+     * Picks the mip level to render at for the given scale, this is the
+     * smallest level that still has at least as many pixels as are shown.
+     *
+     * @param scale The scale the board is drawn at, i.e. 0.25 = 25%.
+     * @return The level in the range [0, LEVELS).
+     */
+    public static int levelFor(double scale) {
+        int level = 0;
+
+        while (level < LEVELS - 1 && scale <= 1.0 / (2 << level)) {
+            level++;
+        }
+
+        return level;
+    }
+
+    /**
+     * Gets the image of a tile at the given mip level.
+     *
+     * @param tile A tile that belongs to a tile set.
+     * @param level The level to get, 0 is the original tile image.
+     * @return The tile image reduced to the level.
+     */
+    public static BufferedImage getTileImage(Tile tile, int level) {
+        BufferedImage image = TileSetAtlas.getTileImage(tile);
+
+        if (level == 0) {
+            return image;
+        }
+
+        TileSetAtlas atlas = TileSetAtlas.get(tile.getTileSet());
+        Map<Tile, BufferedImage[]> tiles = ATLASES.get(atlas);
+        if (tiles == null) {
+            tiles = new IdentityHashMap<>();
+            ATLASES.put(atlas, tiles);
+        }
+
+        BufferedImage[] levels = tiles.get(tile);
+        if (levels == null) {
+            levels = new BufferedImage[LEVELS];
+            tiles.put(tile, levels);
+        }
+
+        if (levels[level] == null) {
+            levels[level] = halve(level == 1
+                    ? image : getTileImage(tile, level - 1));
+        }
+
+        return levels[level];
+    }
+
+    /**
+     * Reduces an image to half its size, each pixel of the result is the
+     * average of a 2x2 block of the source.
+     *
+     * @param source The image to reduce.
+     * @return A new image half the width and height, rounded up.
+     */
+    public static BufferedImage halve(BufferedImage source) {
+        int width = Math.max(1, (source.getWidth() + 1) / 2);
+        int height = Math.max(1, (source.getHeight() + 1) / 2);
+
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+
+        return image;
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+
+import net.rpgtoolkit.common.assets.Board;
+import net.rpgtoolkit.common.assets.Tile;
+
+/**
+ * A view of a rectangular region of a layer. Nothing is copied when a
+ * selection is made, the tiles are only read when the selection is copied
+ * into a {@link TileBlock}. The bulk operations walk the region a row at a
+ * time and write through {@link BoardLayerView#setTileAt(int, int, Tile)}, so
+ * they are recorded in the journal like any other edit. Each returns the
+ * region that was changed, in tile coordinates.
+ */
+public final class TileSelection {
+
+    private final BoardLayerView layer;
+    private Rectangle region;
+
+    /**
+     *
+     * @param layer The layer the selection is on.
+     * @param region The selected region in tile coordinates, it is clipped to
+     * the board.
+     */
+    public TileSelection(BoardLayerView layer, Rectangle region) {
+        this.layer = layer;
+        this.region = clip(region);
+    }
+
+    /**
+     *
+     * @return The layer the selection is on.
+     */
+    public BoardLayerView getLayer() {
+        return layer;
+    }
+
+    /**
+     *
+     * @return The selected region in tile coordinates.
+     */
+    public Rectangle getRegion() {
+        return new Rectangle(region);
+    }
+
+    /**
+     *
+     * @return Does the selection cover no tiles?
+     */
+    public boolean isEmpty() {
+        return region.isEmpty();
+    }
+
+    /**
+     * Copies the selected tiles.
+     *
+     * @return The tiles of the selection.
+     */
+    public TileBlock copy() {
+        TileBlock block = new TileBlock(region.width, region.height);
+        TileStore store = layer.getTileStore();
+
+        for (int y = 0; y < region.height; y++) {
+            int row = region.y + y;
+
+            for (int x = 0; x < region.width; x++) {
+                block.set(x, y, store.get(region.x + x, row));
+            }
+        }
+
+        return block;
+    }
+
+    /**
+     *
+     * @param tile The tile to fill the selection with, null to clear it.
+     * @return The changed region.
+     */
+    public Rectangle fill(Tile tile) {
+        int endX = region.x + region.width;
+        int endY = region.y + region.height;
+
+        for (int y = region.y; y < endY; y++) {
+            for (int x = region.x; x < endX; x++) {
+                layer.setTileAt(x, y, tile);
+            }
+        }
+
+        return getRegion();
+    }
+
+    /**
+     *
+     * @return The changed region.
+     */
+    public Rectangle clear() {
+        return fill(null);
+    }
+
+    /**
+     * Pastes a block with its top left corner at the given tile, the parts
+     * that fall outside of the board are dropped. The selection then covers
+     * the pasted tiles.
+     *
+     * @param block The tiles to paste.
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @return The changed region.
+     */
+    public Rectangle paste(TileBlock block, int x, int y) {
+        region = clip(new Rectangle(x, y, block.getWidth(), block.getHeight()));
+        int endX = region.x + region.width;
+        int endY = region.y + region.height;
+
+        // Consecutive cells of a row usually share a code, decode once per run.
+        for (int row = region.y; row < endY; row++) {
+            int code = TileCodes.EMPTY;
+            Tile tile = null;
+
+            for (int column = region.x; column < endX; column++) {
+                int next = block.get(column - x, row - y);
+                if (next != code) {
+                    code = next;
+                    tile = TileCodes.decode(code);
+                }
+
+                layer.setTileAt(column, row, tile);
+            }
+        }
+
+        return getRegion();
+    }
+
+    /**
+     * Moves the selected tiles, leaving empty cells behind.
+     *
+     * @param dx Distance to move across in tiles.
+     * @param dy Distance to move down in tiles.
+     * @return The changed region.
+     */
+    public Rectangle move(int dx, int dy) {
+        TileBlock block = copy();
+        Rectangle changed = clear();
+        Rectangle moved = paste(block, changed.x + dx, changed.y + dy);
+
+        changed.add(moved);
+
+        return changed;
+    }
+
+    /**
+     * Mirrors the selected tiles from left to right.
+     *
+     * @return The changed region.
+     */
+    public Rectangle flipHorizontal() {
+        TileBlock block = copy();
+        block.flipHorizontal();
+
+        return paste(block, region.x, region.y);
+    }
+
+    /**
+     * Mirrors the selected tiles from top to bottom.
+     *
+     * @return The changed region.
+     */
+    public Rectangle flipVertical() {
+        TileBlock block = copy();
+        block.flipVertical();
+
+        return paste(block, region.x, region.y);
+    }
+
+    /**
+     * Turns the selected tiles a quarter clockwise about the top left corner
+     * of the selection.
+     *
+     * @return The changed region.
+     */
+    public Rectangle rotate() {
+        TileBlock block = copy().rotate();
+        Rectangle changed = clear();
+
+        changed.add(paste(block, changed.x, changed.y));
+
+        return changed;
+    }
+
+    private Rectangle clip(Rectangle rectangle) {
+        Board board = layer.getLayer().getBoard();
+        Rectangle clipped = rectangle.intersection(
+                new Rectangle(0, 0, board.getWidth(), board.getHeight()));
+
+        // Keep empty regions at their position rather than negative sizes.
+        if (clipped.isEmpty()) {
+            clipped.setSize(0, 0);
+        }
+
+        return clipped;
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.rpgtoolkit.common.assets.TileSet;
+import net.rpgtoolkit.editor.editors.tileset.TileSetAtlasCache;
+
+/**
+ * Counts how many tiles from each tile set are placed, indexed by the tile
+ * set ids of {@link TileCodes}. Each layer view keeps one up to date as tiles
+ * are set, so the tile sets used by a board are known without scanning it.
+ *
+ * A usage holds a reference in the {@link TileSetAtlasCache} on every tile set
+ * it counts, taken when the count of a tile set goes from 0 to 1 and released
+ * when it goes back to 0, so the pixels of tile sets placed on an open board
+ * are never evicted. Call {@link #release()} once the usage is discarded.
+ */
+public final class TileSetUsage {
+
+    private int[] counts = new int[8];
+
+    /**
+     * Counts the tiles held by a store, empty chunks are skipped.
+     *
+     * @param store The store to count.
+     * @return The usage of the store.
+     */
+    public static TileSetUsage of(TileStore store) {
+        TileSetUsage usage = new TileSetUsage();
+        int columns = (store.getWidth() + TileStore.CHUNK_SIZE - 1) / TileStore.CHUNK_SIZE;
+        int rows = (store.getHeight() + TileStore.CHUNK_SIZE - 1) / TileStore.CHUNK_SIZE;
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                if (store.isEmptyChunk(x, y)) {
+                    continue;
+                }
+
+                // Cells past the edge of the layer are empty and not counted.
+                for (int code : store.getChunk(x, y)) {
+                    usage.add(code);
+                }
+            }
+        }
+
+        return usage;
+    }
+
+    /**
+     *
+     * @return A copy of this usage.
+     */
+    public TileSetUsage copy() {
+        TileSetUsage copy = new TileSetUsage();
+        copy.counts = counts.clone();
+
+        for (int id = 1; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                acquire(id);
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     *
+     * @param code The code of a tile that was placed.
+     */
+    public void add(int code) {
+        int id = TileCodes.getTileSetId(code);
+
+        if (id == 0) {
+            return;
+        }
+
+        if (id >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+        }
+
+        if (counts[id]++ == 0) {
+            acquire(id);
+        }
+    }
+
+    /**
+     *
+     * @param code The code of a tile that was removed.
+     */
+    public void remove(int code) {
+        int id = TileCodes.getTileSetId(code);
+
+        if (id > 0 && id < counts.length && counts[id] > 0) {
+            if (--counts[id] == 0) {
+                release(id);
+            }
+        }
+    }
+
+    /**
+     * Releases the references held on the tile sets in use and clears the
+     * counts, used when the tiles counted are discarded.
+     */
+    public void release() {
+        for (int id = 1; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                counts[id] = 0;
+                release(id);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param tileSet A tile set.
+     * @return Number of tiles placed from the tile set.
+     */
+    public int getCount(TileSet tileSet) {
+        int id = TileCodes.findId(tileSet);
+
+        return id > 0 && id < counts.length ? counts[id] : 0;
+    }
+
+    /**
+     * Adds the counts of this usage to a map of totals.
+     *
+     * @param totals Tile counts by tile set.
+     */
+    public void addTo(Map<TileSet, Integer> totals) {
+        for (int id = 1; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                TileSet tileSet = TileCodes.getTileSetById(id);
+                Integer total = totals.get(tileSet);
+                totals.put(tileSet, total == null ? counts[id] : total + counts[id]);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Tile counts of the tile sets in use, in order of first use.
+     */
+    public Map<TileSet, Integer> getCounts() {
+        Map<TileSet, Integer> totals = new LinkedHashMap<>();
+        addTo(totals);
+
+        return totals;
+    }
+
+    private static void acquire(int id) {
+        TileSet tileSet = TileCodes.getTileSetById(id);
+
+        if (tileSet != null) {
+            TileSetAtlasCache.acquire(tileSet);
+        }
+    }
+
+    private static void release(int id) {
+        TileSet tileSet = TileCodes.getTileSetById(id);
+
+        if (tileSet != null) {
+            TileSetAtlasCache.release(tileSet);
+        }
+    }
+
+}
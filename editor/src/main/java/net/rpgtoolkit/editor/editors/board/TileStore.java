@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+/**
+ * The packed tiles of a layer, see {@link TileCodes}, mirroring the tiles of
+ * the BoardLayer so that whole layer passes can work on primitive ints. The
+ * tiles are grouped in square chunks of {@link #CHUNK_SIZE} that line up with
+ * the chunks of the {@link LayerRenderCache}. Use {@link TileStores} to create
+ * one.
+ *
+ * Stores are only used from the event dispatch thread.
+ */
+public interface TileStore {
+
+    /**
+     * Width and height of a chunk in tiles.
+     */
+    int CHUNK_SIZE = LayerRenderCache.CHUNK_SIZE;
+
+    /**
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @return The code of the tile at the position.
+     */
+    int get(int x, int y);
+
+    /**
+     *
+     * @param x X coordinate in tiles.
+     * @param y Y coordinate in tiles.
+     * @param code The new code of the tile at the position.
+     */
+    void set(int x, int y, int code);
+
+    /**
+     * Gets the codes of a chunk, row by row, CHUNK_SIZE tiles to a row. Cells
+     * past the edge of the layer are empty. The array must not be modified
+     * and is only valid until the store is next used.
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @return The codes of the chunk.
+     */
+    int[] getChunk(int chunkX, int chunkY);
+
+    /**
+     *
+     * @param chunkX Chunk column.
+     * @param chunkY Chunk row.
+     * @return Does the chunk hold no tiles?
+     */
+    boolean isEmptyChunk(int chunkX, int chunkY);
+
+    /**
+     * Copies the store, the copy is independent of this store.
+     *
+     * @return The copy.
+     */
+    TileStore copy();
+
+    /**
+     * Releases any resources held outside of the heap, the store must not be
+     * used afterwards.
+     */
+    void dispose();
+
+    /**
+     *
+     * @return Width of the layer in tiles.
+     */
+    int getWidth();
+
+    /**
+     *
+     * @return Height of the layer in tiles.
+     */
+    int getHeight();
+
+}
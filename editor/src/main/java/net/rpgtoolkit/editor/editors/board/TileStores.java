@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.io.IOException;
+
+import net.rpgtoolkit.common.assets.BoardLayer;
+import net.rpgtoolkit.common.assets.Tile;
+import net.rpgtoolkit.editor.properties.EditorProperties;
+import net.rpgtoolkit.editor.properties.EditorProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the {@link TileStore} for a layer. Layers with more tiles than the
+ * threshold read from the editor properties are kept in a
+ * {@link MappedTileStore}, all others in a {@link ChunkedTileStore}.
+ */
+public final class TileStores {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileStores.class);
+
+    private static final long DEFAULT_THRESHOLD = 2048 * 2048;
+
+    private static final long THRESHOLD = readThreshold();
+
+    private TileStores() {
+
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param width Width of the layer in tiles.
+     * @param height Height of the layer in tiles.
+     * @return The store.
+     */
+    public static TileStore create(int width, int height) {
+        if (THRESHOLD > 0 && (long) width * height > THRESHOLD) {
+            try {
+                return new MappedTileStore(width, height);
+            } catch (IOException ex) {
+                LOGGER.error("Failed to create mapped tile store width=[{}], height=[{}]",
+                        width, height, ex);
+            }
+        }
+
+        return new ChunkedTileStore(width, height);
+    }
+
+    /**
+     * Packs the current tiles of a layer.
+     *
+     * @param layer The layer to pack.
+     * @return A store holding the tiles of the layer.
+     */
+    public static TileStore fromLayer(BoardLayer layer) {
+        int width = layer.getBoard().getWidth();
+        int height = layer.getBoard().getHeight();
+        TileStore store = create(width, height);
+
+        // The layer is column major, walk it once in that order.
+        Tile[][] tiles = layer.getTiles();
+        for (int x = 0; x < width && x < tiles.length; x++) {
+            Tile[] column = tiles[x];
+
+            for (int y = 0; y < height && y < column.length; y++) {
+                store.set(x, y, TileCodes.encode(column[y]));
+            }
+        }
+
+        return store;
+    }
+
+    private static long readThreshold() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_BOARD_MAPPED_THRESHOLD);
+
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid mapped layer threshold value=[{}]", value, ex);
+            }
+        }
+
+        return DEFAULT_THRESHOLD;
+    }
+
+}
@@ -29,6 +29,7 @@ public class BoardModelPanel extends AbstractModelPanel {
     BoardEditor editor = MainWindow.getInstance().getCurrentBoardEditor();
 
     if (editor != null) {
+      editor.getBoardView().invalidateComposite();
       editor.getBoardView().repaint();
     }
   }
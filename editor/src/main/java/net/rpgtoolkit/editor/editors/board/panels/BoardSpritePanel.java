@@ -18,6 +18,7 @@ import net.rpgtoolkit.common.assets.BoardSprite;
 import net.rpgtoolkit.common.assets.EventType;
 import net.rpgtoolkit.common.assets.Item;
 import net.rpgtoolkit.common.assets.Program;
+import net.rpgtoolkit.editor.editors.BoardEditor;
 import net.rpgtoolkit.editor.editors.board.BoardLayerView;
 import net.rpgtoolkit.common.utilities.CoreProperties;
 import net.rpgtoolkit.editor.utilities.EditorFileManager;
@@ -81,6 +82,8 @@ public class BoardSpritePanel extends BoardModelPanel {
         }
         
         boardSprite.setFileName((String) fileComboBox.getSelectedItem());
+        refreshSpritePreview(boardSprite);
+        updateSpriteIndex(boardSprite);
         updateCurrentBoardView();
     });
     ///
@@ -118,7 +121,8 @@ public class BoardSpritePanel extends BoardModelPanel {
         BoardSprite sprite = (BoardSprite) model;
 
         if (sprite.getX() != (int) xSpinner.getValue()) {
-            sprite.setX((int) xSpinner.getValue());
+            moveSprite(sprite, (int) xSpinner.getValue(), sprite.getY(),
+                    sprite.getLayer());
             updateCurrentBoardView();
         }
     });
@@ -131,7 +135,8 @@ public class BoardSpritePanel extends BoardModelPanel {
         BoardSprite sprite = (BoardSprite) model;
 
         if (sprite.getY() != (int) ySpinner.getValue()) {
-            sprite.setY((int) ySpinner.getValue());
+            moveSprite(sprite, sprite.getX(), (int) ySpinner.getValue(),
+                    sprite.getLayer());
             updateCurrentBoardView();
         }
     });
@@ -151,9 +156,8 @@ public class BoardSpritePanel extends BoardModelPanel {
         // Make sure this is a valid move.
         if (lastLayerView != null && newLayerView != null) {
             // Do the swap.
-            sprite.setLayer((int) layerSpinner.getValue());
-            newLayerView.getLayer().getSprites().add(sprite);
-            lastLayerView.getLayer().getSprites().remove(sprite);
+            moveSprite(sprite, sprite.getX(), sprite.getY(),
+                    (int) layerSpinner.getValue());
             updateCurrentBoardView();
             
             // Store new layer selection index.
@@ -225,4 +229,33 @@ public class BoardSpritePanel extends BoardModelPanel {
     layout.setVerticalGroup(verticalGroup);
   }
   
+
+  private void refreshSpritePreview(BoardSprite sprite) {
+    BoardEditor editor = getBoardEditor();
+
+    if (editor != null) {
+      editor.getBoardView().refreshSpritePreview(sprite);
+    }
+  }
+
+  private void moveSprite(BoardSprite sprite, int x, int y, int layer) {
+    BoardEditor editor = getBoardEditor();
+
+    if (editor != null) {
+      editor.getBoardView().moveSprite(sprite, x, y, layer);
+    }
+  }
+
+  private void updateSpriteIndex(BoardSprite sprite) {
+    BoardEditor editor = getBoardEditor();
+
+    if (editor != null) {
+      BoardLayerView layerView = editor.getBoardView().getLayer(sprite.getLayer());
+
+      if (layerView != null) {
+        layerView.spriteChanged(sprite);
+      }
+    }
+  }
+
 }
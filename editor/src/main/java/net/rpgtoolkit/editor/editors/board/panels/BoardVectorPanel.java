@@ -87,6 +87,8 @@ public class BoardVectorPanel extends BoardModelPanel {
                     ((BoardVector) model).setLayer((int) layerSpinner.getValue());
                     newLayerView.getLayer().getVectors().add((BoardVector) model);
                     lastLayerView.getLayer().getVectors().remove((BoardVector) model);
+                    lastLayerView.vectorRemoved((BoardVector) model);
+                    newLayerView.vectorChanged((BoardVector) model);
                     updateCurrentBoardView();
 
                     // Store new layer selection index.
@@ -110,6 +112,14 @@ public class BoardVectorPanel extends BoardModelPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 ((BoardVector) model).setClosed(isClosedCheckBox.isSelected());
+
+                // Closing or opening the vector changes the lines drawn.
+                BoardLayerView layerView = getBoardEditor().getBoardView().
+                        getLayer(((BoardVector) model).getLayer());
+                if (layerView != null) {
+                    layerView.vectorChanged((BoardVector) model);
+                }
+
                 updateCurrentBoardView();
             }
         });
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.tileset;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import net.rpgtoolkit.common.assets.Tile;
+import net.rpgtoolkit.common.assets.TileSet;
+
+/**
+ * Holds the pixels of every tile in a tile set in a few large images that are
+ * compatible with the display, each tile is addressed by its page and source
+ * rectangle. The decoded source images of the tile set are used as the pages
+ * directly, so building an atlas does not copy any pixels unless a source has
+ * to be converted to a format that can be drawn quickly, see
+ * {@link #toCompatibleImage(BufferedImage)}.
+ *
+ * Atlases are registered against their tile set in the
+ * {@link TileSetAtlasCache} and can be looked up with {@link #get(TileSet)}.
+ */
+public final class TileSetAtlas {
+
+    private final BufferedImage[] pages;
+
+    private final int tileWidth;
+    private final int tileHeight;
+
+    private final int[] tilePage;
+    private final int[] sourceX;
+    private final int[] sourceY;
+    private final int tileCount;
+
+    /**
+     * Creates an atlas over the given pages, only whole tiles are used from
+     * each page.
+     *
+     * @param pages The source images in the order their tiles are indexed,
+     * they should already have been passed through
+     * {@link #toCompatibleImage(BufferedImage)}.
+     * @param tileWidth Width of a tile in pixels.
+     * @param tileHeight Height of a tile in pixels.
+     */
+    public TileSetAtlas(List<BufferedImage> pages, int tileWidth,
+            int tileHeight) {
+        this.pages = pages.toArray(new BufferedImage[pages.size()]);
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+
+        int count = 0;
+        for (BufferedImage page : this.pages) {
+            count += (page.getWidth() / tileWidth)
+                    * (page.getHeight() / tileHeight);
+        }
+
+        tilePage = new int[count];
+        sourceX = new int[count];
+        sourceY = new int[count];
+        tileCount = count;
+
+        int index = 0;
+        for (int i = 0; i < this.pages.length; i++) {
+            int columns = this.pages[i].getWidth() / tileWidth;
+            int rows = this.pages[i].getHeight() / tileHeight;
+
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    tilePage[index] = i;
+                    sourceX[index] = column * tileWidth;
+                    sourceY[index] = row * tileHeight;
+                    index++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an image that can be used as an atlas page. Images that are
+     * already in a packed int format are returned as they are, anything else
+     * is copied once into an image compatible with the display. This is safe
+     * to call from any thread.
+     *
+     * @param image A decoded source image.
+     * @return The image, or a compatible copy of it.
+     */
+    public static BufferedImage toCompatibleImage(BufferedImage image) {
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+            case BufferedImage.TYPE_INT_RGB:
+                return image;
+            default:
+                BufferedImage compatible = createCompatibleImage(
+                        image.getWidth(), image.getHeight());
+
+                Graphics2D g = compatible.createGraphics();
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(image, 0, 0, null);
+                g.dispose();
+
+                return compatible;
+        }
+    }
+
+    /**
+     * Gets the atlas of a tile set.
+     *
+     * @param tileSet The tile set.
+     * @return The atlas, or null if the tile set has none.
+     */
+    public static TileSetAtlas get(TileSet tileSet) {
+        if (tileSet == null) {
+            return null;
+        }
+
+        return TileSetAtlasCache.get(tileSet);
+    }
+
+    /**
+     * Registers the atlas of a tile set, replacing any previous one.
+     *
+     * @param tileSet The tile set.
+     * @param atlas Its atlas.
+     */
+    public static void put(TileSet tileSet, TileSetAtlas atlas) {
+        TileSetAtlasCache.put(tileSet, atlas);
+    }
+
+    /**
+     * Gets the image of a tile without copying its pixels, tiles whose tile set
+     * has no atlas fall back to the image held by the tile itself.
+     *
+     * @param tile A tile that belongs to a tile set.
+     * @return The tile image.
+     */
+    public static BufferedImage getTileImage(Tile tile) {
+        TileSetAtlas atlas = get(tile.getTileSet());
+
+        if (atlas == null || !atlas.contains(tile.getIndex())) {
+            return tile.getTileAsImage();
+        }
+
+        int index = tile.getIndex();
+
+        return atlas.pages[atlas.tilePage[index]].getSubimage(
+                atlas.sourceX[index], atlas.sourceY[index], atlas.tileWidth,
+                atlas.tileHeight);
+    }
+
+    /**
+     * Draws a tile from the atlas of its tile set.
+     *
+     * @param g The graphics context to draw on.
+     * @param tile A tile that belongs to a tile set.
+     * @param x Destination x coordinate.
+     * @param y Destination y coordinate.
+     */
+    public static void drawTile(Graphics g, Tile tile, int x, int y) {
+        TileSetAtlas atlas = get(tile.getTileSet());
+
+        if (atlas == null || !atlas.contains(tile.getIndex())) {
+            g.drawImage(tile.getTileAsImage(), x, y, null);
+        } else {
+            atlas.drawTile(g, tile.getIndex(), x, y);
+        }
+    }
+
+    /**
+     * Draws the tile with the given index.
+     *
+     * @param g The graphics context to draw on.
+     * @param index Index of the tile within its tile set.
+     * @param x Destination x coordinate.
+     * @param y Destination y coordinate.
+     */
+    public void drawTile(Graphics g, int index, int x, int y) {
+        int sx = sourceX[index];
+        int sy = sourceY[index];
+
+        g.drawImage(pages[tilePage[index]], x, y, x + tileWidth, y + tileHeight,
+                sx, sy, sx + tileWidth, sy + tileHeight, null);
+    }
+
+    /**
+     *
+     * @param index Index of a tile within its tile set.
+     * @return Is there a tile at the index?
+     */
+    public boolean contains(int index) {
+        return index >= 0 && index < tileCount;
+    }
+
+    /**
+     *
+     * @param index Index of a tile within its tile set.
+     * @return The source rectangle of the tile in its page.
+     */
+    public Rectangle getTileBounds(int index) {
+        return new Rectangle(sourceX[index], sourceY[index], tileWidth,
+                tileHeight);
+    }
+
+    /**
+     *
+     * @param index Index of a tile within its tile set.
+     * @return The page that holds the tile.
+     */
+    public BufferedImage getPage(int index) {
+        return pages[tilePage[index]];
+    }
+
+    /**
+     *
+     * @return Number of bytes of pixel data held by the pages.
+     */
+    public long getByteSize() {
+        long bytes = 0;
+        for (BufferedImage page : pages) {
+            bytes += (long) page.getWidth() * page.getHeight() * 4;
+        }
+
+        return bytes;
+    }
+
+    /**
+     *
+     * @return Number of tiles in the atlas.
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+}
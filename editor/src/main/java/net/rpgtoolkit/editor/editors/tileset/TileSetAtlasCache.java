@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.tileset;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.rpgtoolkit.common.assets.TileSet;
+import net.rpgtoolkit.editor.properties.EditorProperties;
+import net.rpgtoolkit.editor.properties.EditorProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the decoded pixels of the tile sets the editor has loaded within a
+ * configurable budget. Open board editors and tile set tabs hold references to
+ * the tile sets they show, only tile sets that nothing refers to are evicted,
+ * least recently used first. The TileSet and its tiles are kept by the
+ * TileSetCache, so an evicted tile set is simply decoded again the next time
+ * it is drawn, see {@link TileSetUtil#ensureLoaded(TileSet)}.
+ *
+ * The budget is read from the editor properties in megabytes. This is only
+ * used from the event dispatch thread.
+ */
+public final class TileSetAtlasCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileSetAtlasCache.class);
+
+    private static final long DEFAULT_BUDGET = 256;
+
+    private static final long BUDGET = readBudget() * 1024 * 1024;
+
+    private static final LinkedHashMap<TileSet, Entry> ENTRIES
+            = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long size;
+
+    private TileSetAtlasCache() {
+
+    }
+
+    /**
+     * Gets the atlas of a tile set, marking it as the most recently used.
+     *
+     * @param tileSet The tile set.
+     * @return The atlas, or null if it has not been loaded or was evicted.
+     */
+    public static TileSetAtlas get(TileSet tileSet) {
+        Entry entry = ENTRIES.get(tileSet);
+
+        if (entry == null) {
+            return null;
+        }
+
+        return entry.atlas;
+    }
+
+    /**
+     * Stores the atlas of a tile set, then evicts unreferenced atlases until
+     * the cache is back within its budget. The atlas just stored is never
+     * evicted by this, even if it is over the budget on its own.
+     *
+     * @param tileSet The tile set.
+     * @param atlas Its atlas.
+     */
+    public static void put(TileSet tileSet, TileSetAtlas atlas) {
+        Entry entry = ENTRIES.get(tileSet);
+
+        if (entry == null) {
+            entry = new Entry();
+            ENTRIES.put(tileSet, entry);
+        } else if (entry.atlas != null) {
+            size -= entry.atlas.getByteSize();
+        }
+
+        entry.atlas = atlas;
+        size += atlas.getByteSize();
+
+        evict(tileSet);
+    }
+
+    /**
+     * Adds a reference to a tile set, it will not be evicted until every
+     * reference has been released.
+     *
+     * @param tileSet The tile set.
+     */
+    public static void acquire(TileSet tileSet) {
+        Entry entry = ENTRIES.get(tileSet);
+
+        if (entry == null) {
+            entry = new Entry();
+            ENTRIES.put(tileSet, entry);
+        }
+
+        entry.references++;
+    }
+
+    /**
+     * Releases a reference to a tile set.
+     *
+     * @param tileSet The tile set.
+     */
+    public static void release(TileSet tileSet) {
+        Entry entry = ENTRIES.get(tileSet);
+
+        if (entry == null || entry.references == 0) {
+            LOGGER.warn("Released unreferenced {} name=[{}].",
+                    TileSet.class.getSimpleName(), tileSet.getName());
+            return;
+        }
+
+        entry.references--;
+
+        if (entry.references == 0 && entry.atlas == null) {
+            ENTRIES.remove(tileSet);
+        }
+
+        evict(null);
+    }
+
+    /**
+     *
+     * @param tileSet The tile set.
+     * @return Number of references held on the tile set.
+     */
+    public static int getReferences(TileSet tileSet) {
+        Entry entry = ENTRIES.get(tileSet);
+
+        return entry == null ? 0 : entry.references;
+    }
+
+    /**
+     *
+     * @return Number of bytes of decoded pixels currently held.
+     */
+    public static long getSize() {
+        return size;
+    }
+
+    private static void evict(TileSet keep) {
+        Iterator<Map.Entry<TileSet, Entry>> iterator
+                = ENTRIES.entrySet().iterator();
+        while (size > BUDGET && iterator.hasNext()) {
+            Map.Entry<TileSet, Entry> next = iterator.next();
+            Entry entry = next.getValue();
+
+            if (entry.references == 0 && entry.atlas != null
+                    && next.getKey() != keep) {
+                LOGGER.debug("Evicting {} name=[{}].",
+                        TileSet.class.getSimpleName(), next.getKey().getName());
+
+                size -= entry.atlas.getByteSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long readBudget() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_TILESET_CACHE_SIZE);
+
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid tile set cache size value=[{}]", value, ex);
+            }
+        }
+
+        return DEFAULT_BUDGET;
+    }
+
+    private static final class Entry {
+
+        private TileSetAtlas atlas;
+        private int references;
+
+    }
+
+}
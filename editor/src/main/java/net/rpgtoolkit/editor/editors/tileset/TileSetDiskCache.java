@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.tileset;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import net.rpgtoolkit.editor.properties.EditorProperties;
+import net.rpgtoolkit.editor.properties.EditorProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps decoded tile set images on disk as raw premultiplied ARGB pixels, so
+ * that opening the same project again does not have to decode any PNGs. The
+ * entries are keyed by a hash of the image path, its modification time and
+ * size, and the tile size, any change to the image simply misses the cache.
+ *
+ * Each entry is a small header followed by the pixels row by row, it is read
+ * back a row at a time through a FileChannel. Entries are never mapped or
+ * replaced once written, an entry with the same key always holds the same
+ * pixels. The directory is taken from the editor properties and is relative
+ * to the users home directory.
+ *
+ * The cache is kept within a disk budget, also from the editor properties in
+ * megabytes. Reading an entry marks it as used, and the least recently used
+ * entries are deleted after a write takes the cache over its budget.
+ */
+public final class TileSetDiskCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileSetDiskCache.class);
+
+    private static final String DEFAULT_DIRECTORY = ".rpgtoolkit/cache/tilesets";
+    private static final String EXTENSION = ".argb";
+
+    private static final int MAGIC = 0x52544943; // RTIC
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private static final long DEFAULT_BUDGET = 512L * 1024 * 1024;
+
+    /**
+     * Temporary files older than this were left by a write that never
+     * finished.
+     */
+    private static final long TEMPORARY_AGE = 60L * 60 * 1000;
+
+    private static final File DIRECTORY = new File(System.getProperty("user.home"),
+            readDirectory());
+
+    private static final long BUDGET = readBudget();
+
+    private static final Object PRUNE_LOCK = new Object();
+
+    private TileSetDiskCache() {
+
+    }
+
+    /**
+     * Reads a cached image, safe to call from any thread.
+     *
+     * @param image The source image file.
+     * @param tileWidth Tile width of the tile set the image belongs to.
+     * @param tileHeight Tile height of the tile set the image belongs to.
+     * @return The decoded image, or null if it is not cached.
+     */
+    public static BufferedImage read(File image, int tileWidth, int tileHeight) {
+        File entry = getEntry(image, tileWidth, tileHeight);
+
+        if (entry == null || !entry.isFile()) {
+            return null;
+        }
+
+        BufferedImage decoded;
+        try (FileChannel channel = FileChannel.open(entry.toPath(),
+                StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            if (!readFully(channel, header) || header.getInt() != MAGIC
+                    || header.getInt() != VERSION) {
+                LOGGER.warn("Ignoring invalid tile set cache entry file=[{}].", entry);
+                return null;
+            }
+
+            int width = header.getInt();
+            int height = header.getInt();
+
+            if (width <= 0 || height <= 0 || channel.size()
+                    != HEADER_SIZE + (long) width * height * Integer.BYTES) {
+                LOGGER.warn("Ignoring truncated tile set cache entry file=[{}].", entry);
+                return null;
+            }
+
+            decoded = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_ARGB_PRE);
+            WritableRaster raster = decoded.getRaster();
+
+            // Copy row by row so the image stays eligible for acceleration.
+            int[] row = new int[width];
+            ByteBuffer buffer = ByteBuffer.allocate(width * Integer.BYTES);
+            for (int y = 0; y < height; y++) {
+                buffer.clear();
+                if (!readFully(channel, buffer)) {
+                    LOGGER.warn("Ignoring truncated tile set cache entry file=[{}].", entry);
+                    return null;
+                }
+
+                buffer.asIntBuffer().get(row);
+                raster.setDataElements(0, y, width, 1, row);
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to read tile set cache entry file=[{}].", entry, ex);
+            return null;
+        }
+
+        // Marks the entry as recently used for pruning.
+        entry.setLastModified(System.currentTimeMillis());
+
+        return decoded;
+    }
+
+    /**
+     * Writes a decoded image to the cache, safe to call from any thread. The
+     * entry is written to a temporary file first so a partly written entry is
+     * never read, nothing is written if the entry already exists.
+     *
+     * @param image The source image file.
+     * @param tileWidth Tile width of the tile set the image belongs to.
+     * @param tileHeight Tile height of the tile set the image belongs to.
+     * @param decoded The decoded image.
+     */
+    public static void write(File image, int tileWidth, int tileHeight,
+            BufferedImage decoded) {
+        File entry = getEntry(image, tileWidth, tileHeight);
+
+        if (entry == null || entry.isFile()) {
+            return;
+        }
+
+        if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+            LOGGER.warn("Failed to create tile set cache directory=[{}].", DIRECTORY);
+            return;
+        }
+
+        BufferedImage premultiplied = toPremultiplied(decoded);
+        int width = premultiplied.getWidth();
+        int height = premultiplied.getHeight();
+
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(DIRECTORY.toPath(), "entry", ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+                header.flip();
+                writeFully(channel, header);
+
+                int[] row = new int[width];
+                ByteBuffer buffer = ByteBuffer.allocate(width * Integer.BYTES);
+                for (int y = 0; y < height; y++) {
+                    premultiplied.getRaster().getDataElements(0, y, width, 1, row);
+
+                    buffer.clear();
+                    buffer.asIntBuffer().put(row);
+                    writeFully(channel, buffer);
+                }
+            }
+
+            Files.move(temporary, entry.toPath());
+        } catch (FileAlreadyExistsException ex) {
+            // Written by another thread in the meantime, with the same pixels.
+            if (temporary != null) {
+                temporary.toFile().delete();
+            }
+            return;
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to write tile set cache entry file=[{}].", entry, ex);
+
+            if (temporary != null) {
+                temporary.toFile().delete();
+            }
+            return;
+        }
+
+        prune();
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is within its
+     * budget, along with any temporary files left by unfinished writes.
+     * Entries that cannot be deleted, such as ones being read, are skipped.
+     */
+    private static void prune() {
+        synchronized (PRUNE_LOCK) {
+            File[] files = DIRECTORY.listFiles();
+
+            if (files == null) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            long size = 0;
+            for (File file : files) {
+                if (file.getName().endsWith(EXTENSION)) {
+                    size += file.length();
+                } else if (file.getName().endsWith(".tmp")
+                        && now - file.lastModified() > TEMPORARY_AGE) {
+                    file.delete();
+                }
+            }
+
+            if (size <= BUDGET) {
+                return;
+            }
+
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (size <= BUDGET) {
+                    break;
+                }
+
+                if (!file.getName().endsWith(EXTENSION)) {
+                    continue;
+                }
+
+                long length = file.length();
+                if (file.delete()) {
+                    LOGGER.debug("Pruned tile set cache entry file=[{}].", file);
+                    size -= length;
+                }
+            }
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+
+        buffer.flip();
+
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static BufferedImage toPremultiplied(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            return image;
+        }
+
+        BufferedImage premultiplied = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+
+        Graphics2D g = premultiplied.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+
+        return premultiplied;
+    }
+
+    private static File getEntry(File image, int tileWidth, int tileHeight) {
+        if (!image.isFile()) {
+            return null;
+        }
+
+        String key = image.getAbsolutePath()
+                + "|" + image.lastModified()
+                + "|" + image.length()
+                + "|" + tileWidth + "x" + tileHeight;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+
+            return new File(DIRECTORY, name.append(EXTENSION).toString());
+        } catch (NoSuchAlgorithmException ex) {
+            LOGGER.error("Failed to hash tile set cache key=[{}].", key, ex);
+            return null;
+        }
+    }
+
+    private static long readBudget() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_TILESET_CACHE_DISK_SIZE);
+
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim()) * 1024 * 1024;
+            } catch (NumberFormatException ex) {
+                LOGGER.error("Invalid tile set disk cache size value=[{}]", value, ex);
+            }
+        }
+
+        return DEFAULT_BUDGET;
+    }
+
+    private static String readDirectory() {
+        String value = EditorProperties.getProperty(
+                EditorProperty.EDITOR_TILESET_CACHE_DIRECTORY);
+
+        return value == null ? DEFAULT_DIRECTORY : value.trim();
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.tileset;
+
+import java.util.EventObject;
+import net.rpgtoolkit.common.assets.TileSet;
+
+/**
+ * Reports how far the background loading of a tile set has got, these are
+ * always delivered on the event dispatch thread.
+ */
+public class TileSetLoadEvent extends EventObject {
+
+  private final TileSet tileSet;
+  private final int loadedImages;
+  private final int totalImages;
+
+  public TileSetLoadEvent(Object source, TileSet tileSet, int loadedImages,
+          int totalImages) {
+    super(source);
+    this.tileSet = tileSet;
+    this.loadedImages = loadedImages;
+    this.totalImages = totalImages;
+  }
+
+  public TileSet getTileSet() {
+    return tileSet;
+  }
+
+  public int getLoadedImages() {
+    return loadedImages;
+  }
+
+  public int getTotalImages() {
+    return totalImages;
+  }
+
+}
@@ -7,16 +7,32 @@
  */
 package net.rpgtoolkit.editor.editors.tileset;
 
-import java.awt.Graphics2D;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.SwingUtilities;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.common.assets.TileSet;
+import net.rpgtoolkit.editor.ui.listeners.TileSetLoadListener;
 import net.rpgtoolkit.editor.utilities.EditorFileManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -24,51 +40,312 @@ import net.rpgtoolkit.editor.utilities.EditorFileManager;
  */
 public class TileSetUtil {
 
-    public static TileSet load(TileSet tileSet) throws IOException {
-        int tileWidth = tileSet.getTileWidth();
-        int tileHeight = tileSet.getTileHeight();
-        List<String> images = tileSet.getImages();
-        for (String image : images) {
-            String subdir = EditorFileManager.getGraphicsSubdirectory();
-            File file = EditorFileManager.getPath(subdir + File.separator + image);
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileSetUtil.class);
+
+    /**
+     * Decodes tile set images in the background, bounded by the number of
+     * processors so that opening many tile sets does not flood the machine.
+     */
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new DecoderThreadFactory());
+
+    private static final List<TileSetLoadListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tile sets whose images are being decoded, only used on the event
+     * dispatch thread.
+     */
+    private static final Set<TileSet> LOADING = new HashSet<>();
+    /**
+     * Tile sets whose images could not be read or whose pixels could not be
+     * reloaded after being evicted, they are not tried again until the tile
+     * set is loaded anew.
+     */
+    private static final Set<TileSet> FAILED = new HashSet<>();
 
-            try (FileInputStream fis = new FileInputStream(file)) {
-                BufferedImage source = ImageIO.read(fis);
-                tileSet = loadImageIntoTileSet(tileSet, source, tileWidth, tileHeight);
+    /**
+     * Starts loading tile sets in the background. Only the image headers are
+     * read before this returns, which is enough to create all of the tiles so
+     * boards can refer to them straight away. The pixels are decoded
+     * concurrently and each tile set's atlas is registered on the event
+     * dispatch thread once all of its images are ready, listeners are told
+     * about the progress as it happens.
+     *
+     * A tile set with an image whose header cannot be read is marked as
+     * failed and gets no tiles, see {@link #isFailed(TileSet)}, the others are
+     * still loaded. Loading a failed tile set again retries it.
+     *
+     * @param tileSets
+     */
+    public static void loadAsync(List<TileSet> tileSets) {
+        for (TileSet tileSet : tileSets) {
+            List<File> files = getImageFiles(tileSet);
+
+            List<Dimension> sizes = new ArrayList<>();
+            try {
+                for (File file : files) {
+                    sizes.add(readSize(file));
+                }
+            } catch (IOException ex) {
+                LOGGER.error("Failed to read {} images name=[{}].", TileSet.class.getSimpleName(), tileSet.getName(), ex);
+                FAILED.add(tileSet);
+                continue;
+            }
+
+            // Retrying a tile set that failed after its tiles were created.
+            if (tileSet.getTiles().isEmpty()) {
+                createTiles(tileSet, sizes);
             }
+
+            FAILED.remove(tileSet);
+            decodeAsync(tileSet, files, sizes);
+        }
+    }
+
+    /**
+     * Makes sure the pixels of a tile set are available, if they have been
+     * evicted from the {@link TileSetAtlasCache} they are decoded again in the
+     * background and listeners are told when they are ready. Does nothing if
+     * the tile set is loaded, already being loaded or failed to reload.
+     *
+     * @param tileSet
+     * @return Are the pixels available right now?
+     */
+    public static boolean ensureLoaded(TileSet tileSet) {
+        if (isLoaded(tileSet)) {
+            return true;
+        }
+
+        if (!LOADING.contains(tileSet) && !FAILED.contains(tileSet)) {
+            LOGGER.info("Reloading evicted {} name=[{}].", TileSet.class.getSimpleName(), tileSet.getName());
+
+            List<File> files = getImageFiles(tileSet);
+            decodeAsync(tileSet, files, null);
         }
 
-        return tileSet;
+        return false;
     }
 
-    public static TileSet loadImageIntoTileSet(TileSet tileSet, BufferedImage source, int tileWidth, int tileHeight) {
-        int sourceWidth = source.getWidth();
-        int sourceHeight = source.getHeight();
+    /**
+     *
+     * @param tileSet
+     * @return Have the pixels of the tile set been loaded?
+     */
+    public static boolean isLoaded(TileSet tileSet) {
+        return TileSetAtlas.get(tileSet) != null;
+    }
 
-        int rows = sourceHeight / tileHeight;
-        int columns = sourceWidth / tileWidth;
+    /**
+     *
+     * @param tileSet
+     * @return Did the last attempt to load the tile set fail?
+     */
+    public static boolean isFailed(TileSet tileSet) {
+        return FAILED.contains(tileSet);
+    }
 
-        Tile tile;
-        BufferedImage subImage;
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                subImage = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_ARGB);
+    public static void addTileSetLoadListener(TileSetLoadListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeTileSetLoadListener(TileSetLoadListener listener) {
+        LISTENERS.remove(listener);
+    }
 
-                Graphics2D g2d = subImage.createGraphics();
-                g2d.drawImage(source, 0, 0, tileWidth, tileHeight, tileWidth * y, tileHeight * x,
-                        tileWidth * y + tileWidth, tileHeight * x + tileHeight, null);
-                g2d.dispose();
+    private static void createTiles(TileSet tileSet, List<Dimension> sizes) {
+        int tileWidth = tileSet.getTileWidth();
+        int tileHeight = tileSet.getTileHeight();
+
+        Tile tile;
+        for (Dimension size : sizes) {
+            int count = (size.width / tileWidth) * (size.height / tileHeight);
 
+            for (int i = 0; i < count; i++) {
                 tile = new Tile();
                 tileSet.addTile(tile);
-                
-                tile.setRect(0, 0, subImage.getRaster());
+
                 tile.setTileSet(tileSet);
                 tile.setIndex(tileSet.getTiles().size() - 1);
             }
         }
+    }
+
+    /**
+     * Decodes the images of a tile set on the decoder pool and registers its
+     * atlas once they are all done. An image that fails to decode is replaced
+     * by a blank one of the size given in its header, so the tiles of later
+     * images keep their place in the atlas. If the header cannot be read
+     * either the load fails and no atlas is registered, the tiles keep being
+     * drawn as placeholders.
+     */
+    private static void decodeAsync(TileSet tileSet, List<File> files, List<Dimension> sizes) {
+        LOADING.add(tileSet);
+
+        if (files.isEmpty()) {
+            registerAtlas(tileSet, new ArrayList<>());
+            return;
+        }
+
+        BufferedImage[] sources = new BufferedImage[files.size()];
+        AtomicInteger loaded = new AtomicInteger();
+
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            File file = files.get(i);
+            Dimension size = sizes == null ? null : sizes.get(i);
+
+            DECODER.submit(() -> {
+                try {
+                    sources[index] = decode(tileSet, file);
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.error("Failed to decode {} image file=[{}].", TileSet.class.getSimpleName(), file, ex);
+                    sources[index] = createStandIn(file, size);
+                }
+
+                int count = loaded.incrementAndGet();
+                SwingUtilities.invokeLater(() -> fireProgressed(tileSet, count, sources.length));
+
+                if (count == sources.length) {
+                    if (Arrays.asList(sources).contains(null)) {
+                        failLoad(tileSet);
+                    } else {
+                        registerAtlas(tileSet, Arrays.asList(sources));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates a blank image to stand in for one that failed to decode.
+     *
+     * @param file The image file.
+     * @param size Its size if already known from the header, otherwise the
+     * header is read now.
+     * @return The stand in, or null if the size of the image is not known.
+     */
+    private static BufferedImage createStandIn(File file, Dimension size) {
+        if (size == null) {
+            try {
+                size = readSize(file);
+            } catch (IOException ex) {
+                LOGGER.error("Failed to read {} image size file=[{}].", TileSet.class.getSimpleName(), file, ex);
+                return null;
+            }
+        }
+
+        return new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static void failLoad(TileSet tileSet) {
+        LOGGER.error("Failed to load {} name=[{}], its tiles will not be drawn.", TileSet.class.getSimpleName(), tileSet.getName());
+
+        SwingUtilities.invokeLater(() -> {
+            LOADING.remove(tileSet);
+            FAILED.add(tileSet);
+        });
+    }
+
+    private static void registerAtlas(TileSet tileSet, List<BufferedImage> sources) {
+        TileSetAtlas atlas = new TileSetAtlas(sources, tileSet.getTileWidth(), tileSet.getTileHeight());
+
+        SwingUtilities.invokeLater(() -> {
+            LOADING.remove(tileSet);
+            TileSetAtlas.put(tileSet, atlas);
+            fireLoaded(tileSet, sources.size());
+        });
+    }
+
+    private static void fireProgressed(TileSet tileSet, int loaded, int total) {
+        TileSetLoadEvent event = new TileSetLoadEvent(TileSetUtil.class, tileSet, loaded, total);
+
+        for (TileSetLoadListener listener : LISTENERS) {
+            listener.tileSetLoadProgressed(event);
+        }
+    }
+
+    private static void fireLoaded(TileSet tileSet, int total) {
+        TileSetLoadEvent event = new TileSetLoadEvent(TileSetUtil.class, tileSet, total, total);
+
+        for (TileSetLoadListener listener : LISTENERS) {
+            listener.tileSetLoaded(event);
+        }
+    }
+
+    private static List<File> getImageFiles(TileSet tileSet) {
+        List<File> files = new ArrayList<>();
+        for (String image : tileSet.getImages()) {
+            String subdir = EditorFileManager.getGraphicsSubdirectory();
+            files.add(EditorFileManager.getPath(subdir + File.separator + image));
+        }
+
+        return files;
+    }
+
+    /**
+     * Reads the size of an image from its header without decoding any pixels.
+     */
+    private static Dimension readSize(File file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                throw new IOException("Failed to open image file=[" + file + "]");
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format file=[" + file + "]");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes one image of a tile set, images that have been decoded before are
+     * read back from the {@link TileSetDiskCache} instead.
+     */
+    private static BufferedImage decode(TileSet tileSet, File file) throws IOException {
+        int tileWidth = tileSet.getTileWidth();
+        int tileHeight = tileSet.getTileHeight();
+
+        BufferedImage cached = TileSetDiskCache.read(file, tileWidth, tileHeight);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (FileInputStream fis = new FileInputStream(file)) {
+            BufferedImage source = ImageIO.read(fis);
+
+            if (source == null) {
+                throw new IOException("Unsupported image format file=[" + file + "]");
+            }
+
+            source = TileSetAtlas.toCompatibleImage(source);
+            TileSetDiskCache.write(file, tileWidth, tileHeight, source);
+
+            return source;
+        }
+    }
+
+    private static class DecoderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "tileset-decoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
 
-        return tileSet;
     }
 
 }
@@ -22,6 +22,18 @@ public enum EditorProperty {
   EDITOR_UI_TITLE("editor.ui.title"),
   
   EDITOR_PLUGINS_DIRECOTRY("editor.plugins.directory"),
+
+  // Board rendering
+  EDITOR_BOARD_CACHE_SIZE("editor.board.cache.size"),
+  EDITOR_BOARD_MAPPED_THRESHOLD("editor.board.mapped.threshold"),
+
+  // Board editing
+  EDITOR_BOARD_UNDO_SIZE("editor.board.undo.size"),
+
+  // Tile sets
+  EDITOR_TILESET_CACHE_SIZE("editor.tileset.cache.size"),
+  EDITOR_TILESET_CACHE_DIRECTORY("editor.tileset.cache.directory"),
+  EDITOR_TILESET_CACHE_DISK_SIZE("editor.tileset.cache.disk.size"),
     
   // Tooltips
   EDITOR_UI_TOOLTIP_NEW("editor.ui.tooltip.new"),
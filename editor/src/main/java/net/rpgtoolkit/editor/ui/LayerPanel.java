@@ -224,7 +224,7 @@ public class LayerPanel extends JPanel implements ChangeListener,
                 if (boardView != null) {
                     if (layerTable.getSelectedRow() > -1) {
                         int selectedIndex = layerTable.getSelectedRow();
-                        boardView.getBoard().cloneLayer((boardView.getBoard().getLayers().size()
+                        boardView.cloneLayer((boardView.getBoard().getLayers().size()
                                 - selectedIndex) - 1);
                         layerTable.setRowSelectionInterval(selectedIndex, selectedIndex);
                     }
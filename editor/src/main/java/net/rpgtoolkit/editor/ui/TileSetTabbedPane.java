@@ -8,17 +8,28 @@
 package net.rpgtoolkit.editor.ui;
 
 import net.rpgtoolkit.editor.MainWindow;
+import java.awt.Component;
 import java.awt.Font;
+import java.awt.GridBagLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JViewport;
+import javax.swing.ToolTipManager;
 import javax.swing.event.ChangeEvent;
 import net.rpgtoolkit.common.assets.TileSet;
 import net.rpgtoolkit.common.utilities.CoreProperties;
+import net.rpgtoolkit.editor.editors.BoardEditor;
 import net.rpgtoolkit.editor.editors.TileSetCanvas;
+import net.rpgtoolkit.editor.editors.tileset.TileSetLoadEvent;
+import net.rpgtoolkit.editor.editors.tileset.TileSetUtil;
+import net.rpgtoolkit.editor.ui.listeners.TileSetLoadListener;
 
 /**
  *
@@ -26,31 +37,43 @@ import net.rpgtoolkit.editor.editors.TileSetCanvas;
  */
 public class TileSetTabbedPane extends JTabbedPane {
 
+    private final Map<String, TileSet> tileSets = new HashMap<>();
+
     public TileSetTabbedPane() {
         setFont(new Font(getFont().getFontName(), Font.PLAIN, 10));
         setTabPlacement(JTabbedPane.BOTTOM);
+        ToolTipManager.sharedInstance().registerComponent(this);
 
         addMouseListener();
         addTabChangeListener();
+        addTileSetLoadListener();
     }
 
+    /**
+     * Adds a tab for the tile set, while the tile set is still loading the tab
+     * shows its progress and the tiles are shown once it has finished.
+     *
+     * @param tileSet
+     */
     public void addTileSet(TileSet tileSet) {
-        String tabName = tileSet.getName().replace(
-                CoreProperties.getDefaultExtension(TileSet.class), "");
+        String tabName = getTabName(tileSet);
+        tileSets.put(tabName, tileSet);
 
         if (indexOfTab(tabName) < 0) {
-            JScrollPane scrollPane = new JScrollPane();
-            scrollPane.getViewport().setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
-
-            TileSetCanvas canvas = new TileSetCanvas(tileSet);
-            canvas.addTileSelectionListener(
-                    MainWindow.getInstance().getTileSetSelectionListener()
-            );
-
-            scrollPane.setViewportView(canvas);
-            scrollPane.getViewport().revalidate();
+            if (TileSetUtil.isLoaded(tileSet)) {
+                addTab(tabName, createTileSetPane(tileSet));
+            } else {
+                JProgressBar progressBar = new JProgressBar(0,
+                        Math.max(1, tileSet.getImages().size()));
+                progressBar.setStringPainted(true);
+                progressBar.setString("Loading...");
+
+                JPanel panel = new JPanel(new GridBagLayout());
+                panel.add(progressBar);
+
+                addTab(tabName, panel);
+            }
 
-            addTab(tabName, scrollPane);
             setSelectedIndex(indexOfTab(tabName));
         }
     }
@@ -63,6 +86,84 @@ public class TileSetTabbedPane extends JTabbedPane {
 
     public void removeTileSets() {
         removeAll();
+        tileSets.clear();
+    }
+
+    /**
+     * Shows how many tiles of the tab's tile set are used by the current
+     * board, the counts are kept by the board view so nothing is scanned.
+     *
+     * @param e
+     * @return
+     */
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int index = indexAtLocation(e.getX(), e.getY());
+        BoardEditor editor = MainWindow.getInstance().getCurrentBoardEditor();
+
+        if (index < 0 || editor == null) {
+            return super.getToolTipText(e);
+        }
+
+        TileSet tileSet = tileSets.get(getTitleAt(index));
+        if (tileSet == null) {
+            return super.getToolTipText(e);
+        }
+
+        Integer count = editor.getBoardView().getTileSetUsage().get(tileSet);
+
+        return getTitleAt(index) + ": " + (count == null ? 0 : count)
+                + " tiles used on this board";
+    }
+
+    private String getTabName(TileSet tileSet) {
+        return tileSet.getName().replace(
+                CoreProperties.getDefaultExtension(TileSet.class), "");
+    }
+
+    private JScrollPane createTileSetPane(TileSet tileSet) {
+        JScrollPane scrollPane = new JScrollPane();
+        scrollPane.getViewport().setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
+
+        TileSetCanvas canvas = new TileSetCanvas(tileSet);
+        canvas.addTileSelectionListener(
+                MainWindow.getInstance().getTileSetSelectionListener()
+        );
+
+        scrollPane.setViewportView(canvas);
+        scrollPane.getViewport().revalidate();
+
+        return scrollPane;
+    }
+
+    private void addTileSetLoadListener() {
+        TileSetUtil.addTileSetLoadListener(new TileSetLoadListener() {
+
+            @Override
+            public void tileSetLoadProgressed(TileSetLoadEvent e) {
+                int index = indexOfTab(getTabName(e.getTileSet()));
+
+                if (index > -1) {
+                    Component component = getComponentAt(index);
+
+                    if (component instanceof JPanel) {
+                        JProgressBar progressBar = (JProgressBar) ((JPanel) component).getComponent(0);
+                        progressBar.setMaximum(e.getTotalImages());
+                        progressBar.setValue(e.getLoadedImages());
+                    }
+                }
+            }
+
+            @Override
+            public void tileSetLoaded(TileSetLoadEvent e) {
+                int index = indexOfTab(getTabName(e.getTileSet()));
+
+                if (index > -1 && !(getComponentAt(index) instanceof JScrollPane)) {
+                    setComponentAt(index, createTileSetPane(e.getTileSet()));
+                }
+            }
+
+        });
     }
 
     private void addMouseListener() {
@@ -75,6 +176,7 @@ public class TileSetTabbedPane extends JTabbedPane {
                 int index = tabs.indexAtLocation(e.getX(), e.getY());
 
                 if (index > -1 && e.getButton() == MouseEvent.BUTTON2) {
+                    tileSets.remove(tabs.getTitleAt(index));
                     tabs.remove(index);
                 }
             }
@@ -84,7 +186,7 @@ public class TileSetTabbedPane extends JTabbedPane {
 
     private void addTabChangeListener() {
         addChangeListener((ChangeEvent e) -> {
-            JTabbedPane sourceTabbedPane = (JTabbedPane) changeEvent.getSource();
+            JTabbedPane sourceTabbedPane = (JTabbedPane) e.getSource();
             int index = sourceTabbedPane.getSelectedIndex();
 
             if (index > -1) {
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.ui.actions;
+
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import net.rpgtoolkit.editor.MainWindow;
+import net.rpgtoolkit.editor.editors.board.BrushShape;
+
+/**
+ *
+ */
+public class BrushShapeAction extends AbstractAction {
+
+  private final BrushShape shape;
+
+  /**
+   *
+   * @param shape The shape given to the pencil and eraser.
+   */
+  public BrushShapeAction(BrushShape shape) {
+    super(shape.toString());
+    this.shape = shape;
+  }
+
+  /**
+   *
+   * @param e
+   */
+  @Override
+  public void actionPerformed(ActionEvent e) {
+    MainWindow.getInstance().setBrushShape(shape);
+  }
+
+}
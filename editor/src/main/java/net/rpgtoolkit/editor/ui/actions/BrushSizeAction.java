@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.ui.actions;
+
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import net.rpgtoolkit.editor.MainWindow;
+
+/**
+ *
+ */
+public class BrushSizeAction extends AbstractAction {
+
+  private final int size;
+
+  /**
+   *
+   * @param size The width and height given to the pencil and eraser, in
+   * tiles.
+   */
+  public BrushSizeAction(int size) {
+    super(size + " x " + size);
+    this.size = size;
+  }
+
+  /**
+   *
+   * @param e
+   */
+  @Override
+  public void actionPerformed(ActionEvent e) {
+    MainWindow.getInstance().setBrushSize(size);
+  }
+
+}
@@ -7,7 +7,6 @@
  */
 package net.rpgtoolkit.editor.ui.actions;
 
-import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
 import net.rpgtoolkit.common.assets.Tile;
@@ -26,7 +25,8 @@ public class EraserAction extends AbstractAction {
     BoardEditor.toggleSelectedOnBoardEditor();
 
     EraserBrush brush = new EraserBrush();
-    brush.makeRectangleBrush(new Rectangle(0, 0, 1, 1));
+    brush.makeBrush(MainWindow.getInstance().getBrushShape(),
+            MainWindow.getInstance().getBrushSize());
     brush.setTile(new Tile());
     MainWindow.getInstance().setCurrentBrush(brush);
   }
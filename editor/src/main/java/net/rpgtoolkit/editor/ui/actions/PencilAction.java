@@ -7,7 +7,6 @@
  */
 package net.rpgtoolkit.editor.ui.actions;
 
-import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
 import net.rpgtoolkit.editor.editors.BoardEditor;
@@ -26,7 +25,8 @@ public class PencilAction extends AbstractAction {
 
     ShapeBrush brush = new ShapeBrush();
     brush.setTile(MainWindow.getInstance().getLastSelectedTile());
-    brush.makeRectangleBrush(new Rectangle(0, 0, 1, 1));
+    brush.makeBrush(MainWindow.getInstance().getBrushShape(),
+            MainWindow.getInstance().getBrushSize());
     MainWindow.getInstance().setCurrentBrush(brush);
   }
 
@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.ui.listeners;
+
+import java.util.EventListener;
+import net.rpgtoolkit.editor.editors.board.BoardRegionEvent;
+
+/**
+ *
+ */
+public interface BoardRegionListener extends EventListener {
+
+  /**
+   * Called at most once per event dispatch cycle with all of the changes
+   * posted since the last call.
+   *
+   * @param e
+   */
+  public void boardRegionChanged(BoardRegionEvent e);
+
+}
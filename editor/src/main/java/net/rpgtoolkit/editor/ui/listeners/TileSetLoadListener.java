@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.ui.listeners;
+
+import java.util.EventListener;
+import net.rpgtoolkit.editor.editors.tileset.TileSetLoadEvent;
+
+/**
+ *
+ */
+public interface TileSetLoadListener extends EventListener {
+
+  /**
+   * Called each time one of the images of a tile set has been decoded.
+   *
+   * @param e
+   */
+  public void tileSetLoadProgressed(TileSetLoadEvent e);
+
+  /**
+   * Called once all of the images of a tile set are ready to be drawn.
+   *
+   * @param e
+   */
+  public void tileSetLoaded(TileSetLoadEvent e);
+
+}
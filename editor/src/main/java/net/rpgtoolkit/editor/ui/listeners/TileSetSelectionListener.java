@@ -12,7 +12,6 @@
  */
 package net.rpgtoolkit.editor.ui.listeners;
 
-import java.awt.Rectangle;
 import net.rpgtoolkit.common.assets.Tile;
 import net.rpgtoolkit.editor.MainWindow;
 import net.rpgtoolkit.editor.editors.TileRegionSelectionEvent;
@@ -43,9 +42,8 @@ public class TileSetSelectionListener implements TileSelectionListener {
         } else {
             ShapeBrush shapeBrush = new ShapeBrush();
             shapeBrush.setTile(e.getTile());
-            shapeBrush.makeRectangleBrush(
-                    new Rectangle(0, 0, 1, 1)
-            );
+            shapeBrush.makeBrush(mainWindow.getBrushShape(),
+                    mainWindow.getBrushSize());
             mainWindow.setCurrentBrush(shapeBrush);
             mainWindow.getMainToolBar().getPencilButton().setSelected(true);
         }
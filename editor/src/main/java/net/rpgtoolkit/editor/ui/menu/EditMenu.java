@@ -13,13 +13,26 @@ import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JSeparator;
 import javax.swing.KeyStroke;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import net.rpgtoolkit.editor.editors.board.BoardJournal;
+import net.rpgtoolkit.editor.ui.actions.CopyAction;
+import net.rpgtoolkit.editor.ui.actions.CutAction;
+import net.rpgtoolkit.editor.ui.actions.FillSelectionAction;
+import net.rpgtoolkit.editor.ui.actions.FlipHorizontalAction;
+import net.rpgtoolkit.editor.ui.actions.FlipVerticalAction;
+import net.rpgtoolkit.editor.ui.actions.PasteAction;
+import net.rpgtoolkit.editor.ui.actions.RedoAction;
+import net.rpgtoolkit.editor.ui.actions.RotateSelectionAction;
+import net.rpgtoolkit.editor.ui.actions.SelectAllAction;
+import net.rpgtoolkit.editor.ui.actions.UndoAction;
 import net.rpgtoolkit.editor.ui.resources.Icons;
 
 /**
  *
  * @author Joshua Michael Daly
  */
-public final class EditMenu extends JMenu {
+public final class EditMenu extends JMenu implements ChangeListener {
 
   private JMenuItem undoMenuItem;
   private JMenuItem redoMenuItem;
@@ -27,10 +40,16 @@ public final class EditMenu extends JMenu {
   private JMenuItem copyMenuItem;
   private JMenuItem pasteMenuItem;
   private JMenuItem selectAllMenuItem;
+  private JMenuItem fillSelectionMenuItem;
+  private JMenuItem flipHorizontalMenuItem;
+  private JMenuItem flipVerticalMenuItem;
+  private JMenuItem rotateSelectionMenuItem;
   private JMenuItem commentMenuItem;
   private JMenuItem findMenuItem;
   private JMenuItem quickReplaceMenuItem;
 
+  private BoardJournal journal;
+
   public EditMenu() {
     super("Edit");
 
@@ -42,6 +61,10 @@ public final class EditMenu extends JMenu {
     configureCopyMenuItem();
     configurePasteMenuItem();
     configureSelectAllMenuItem();
+    configureFillSelectionMenuItem();
+    configureFlipHorizontalMenuItem();
+    configureFlipVerticalMenuItem();
+    configureRotateSelectionMenuItem();
     configureCommentMenuItem();
     configureFindMenuItem();
     configureQuickReplaceMenuItem();
@@ -56,12 +79,18 @@ public final class EditMenu extends JMenu {
     add(selectAllMenuItem);
     add(commentMenuItem);
     add(new JSeparator());
+    add(fillSelectionMenuItem);
+    add(flipHorizontalMenuItem);
+    add(flipVerticalMenuItem);
+    add(rotateSelectionMenuItem);
+    add(new JSeparator());
     add(findMenuItem);
     add(quickReplaceMenuItem);
   }
 
   public void configureUndoMenuItem() {
     undoMenuItem = new JMenuItem("Undo");
+    undoMenuItem.addActionListener(new UndoAction());
     undoMenuItem.setIcon(Icons.getSmallIcon("undo"));
     undoMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_Z, ActionEvent.CTRL_MASK));
@@ -72,6 +101,7 @@ public final class EditMenu extends JMenu {
 
   public void configureRedoMenuItem() {
     redoMenuItem = new JMenuItem("Redo");
+    redoMenuItem.addActionListener(new RedoAction());
     redoMenuItem.setIcon(Icons.getSmallIcon("redo"));
     redoMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_Y, ActionEvent.CTRL_MASK));
@@ -82,41 +112,79 @@ public final class EditMenu extends JMenu {
 
   public void configureCutMenuItem() {
     cutMenuItem = new JMenuItem("Cut");
+    cutMenuItem.addActionListener(new CutAction());
     cutMenuItem.setIcon(Icons.getSmallIcon("cut"));
     cutMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_X, ActionEvent.CTRL_MASK));
     cutMenuItem.setMnemonic(KeyEvent.VK_T);
 
-    cutMenuItem.setEnabled(false);
+    cutMenuItem.setEnabled(true);
   }
 
   public void configureCopyMenuItem() {
     copyMenuItem = new JMenuItem("Copy");
+    copyMenuItem.addActionListener(new CopyAction());
     copyMenuItem.setIcon(Icons.getSmallIcon("copy"));
     copyMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_C, ActionEvent.CTRL_MASK));
     copyMenuItem.setMnemonic(KeyEvent.VK_C);
 
-    copyMenuItem.setEnabled(false);
+    copyMenuItem.setEnabled(true);
   }
 
   public void configurePasteMenuItem() {
     pasteMenuItem = new JMenuItem("Paste");
+    pasteMenuItem.addActionListener(new PasteAction());
     pasteMenuItem.setIcon(Icons.getSmallIcon("paste"));
     pasteMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_V, ActionEvent.CTRL_MASK));
     pasteMenuItem.setMnemonic(KeyEvent.VK_P);
 
-    pasteMenuItem.setEnabled(false);
+    pasteMenuItem.setEnabled(true);
   }
 
   public void configureSelectAllMenuItem() {
     selectAllMenuItem = new JMenuItem("Select All");
+    selectAllMenuItem.addActionListener(new SelectAllAction());
     selectAllMenuItem.setAccelerator(
             KeyStroke.getKeyStroke(KeyEvent.VK_A, ActionEvent.CTRL_MASK));
     selectAllMenuItem.setMnemonic(KeyEvent.VK_A);
 
-    selectAllMenuItem.setEnabled(false);
+    selectAllMenuItem.setEnabled(true);
+  }
+
+  public void configureFillSelectionMenuItem() {
+    fillSelectionMenuItem = new JMenuItem("Fill Selection");
+    fillSelectionMenuItem.addActionListener(new FillSelectionAction());
+    fillSelectionMenuItem.setMnemonic(KeyEvent.VK_I);
+
+    fillSelectionMenuItem.setEnabled(true);
+  }
+
+  public void configureFlipHorizontalMenuItem() {
+    flipHorizontalMenuItem = new JMenuItem("Flip Horizontal");
+    flipHorizontalMenuItem.addActionListener(new FlipHorizontalAction());
+    flipHorizontalMenuItem.setMnemonic(KeyEvent.VK_H);
+
+    flipHorizontalMenuItem.setEnabled(true);
+  }
+
+  public void configureFlipVerticalMenuItem() {
+    flipVerticalMenuItem = new JMenuItem("Flip Vertical");
+    flipVerticalMenuItem.addActionListener(new FlipVerticalAction());
+    flipVerticalMenuItem.setMnemonic(KeyEvent.VK_V);
+
+    flipVerticalMenuItem.setEnabled(true);
+  }
+
+  public void configureRotateSelectionMenuItem() {
+    rotateSelectionMenuItem = new JMenuItem("Rotate Clockwise");
+    rotateSelectionMenuItem.addActionListener(new RotateSelectionAction());
+    rotateSelectionMenuItem.setAccelerator(
+            KeyStroke.getKeyStroke(KeyEvent.VK_R, ActionEvent.CTRL_MASK));
+    rotateSelectionMenuItem.setMnemonic(KeyEvent.VK_O);
+
+    rotateSelectionMenuItem.setEnabled(true);
   }
 
   public void configureCommentMenuItem() {
@@ -148,5 +216,32 @@ public final class EditMenu extends JMenu {
 
     quickReplaceMenuItem.setEnabled(false);
   }
+
+  /**
+   * Follows the undo history of the current board, the undo and redo items
+   * are only enabled while it has something to undo or redo.
+   *
+   * @param journal The history of the current board, or null if no board is
+   * being edited.
+   */
+  public void setJournal(BoardJournal journal) {
+    if (this.journal != null) {
+      this.journal.removeChangeListener(this);
+    }
+
+    this.journal = journal;
+
+    if (journal != null) {
+      journal.addChangeListener(this);
+    }
+
+    stateChanged(null);
+  }
+
+  @Override
+  public void stateChanged(ChangeEvent e) {
+    undoMenuItem.setEnabled(journal != null && journal.canUndo());
+    redoMenuItem.setEnabled(journal != null && journal.canRedo());
+  }
   
 }
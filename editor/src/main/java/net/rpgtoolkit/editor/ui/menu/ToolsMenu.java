@@ -8,7 +8,12 @@
 package net.rpgtoolkit.editor.ui.menu;
 
 import java.awt.event.KeyEvent;
+import javax.swing.ButtonGroup;
 import javax.swing.JMenu;
+import javax.swing.JRadioButtonMenuItem;
+import net.rpgtoolkit.editor.editors.board.BrushShape;
+import net.rpgtoolkit.editor.ui.actions.BrushShapeAction;
+import net.rpgtoolkit.editor.ui.actions.BrushSizeAction;
 
 /**
  *
@@ -16,10 +21,49 @@ import javax.swing.JMenu;
  */
 public final class ToolsMenu extends JMenu {
 
+  private static final int[] BRUSH_SIZES = {1, 2, 3, 5, 7, 9};
+
+  private JMenu brushShapeMenu;
+  private JMenu brushSizeMenu;
+
   public ToolsMenu() {
     super("Tools");
 
     this.setMnemonic(KeyEvent.VK_T);
+
+    configureBrushShapeMenu();
+    configureBrushSizeMenu();
+
+    add(brushShapeMenu);
+    add(brushSizeMenu);
+  }
+
+  public void configureBrushShapeMenu() {
+    brushShapeMenu = new JMenu("Brush Shape");
+    brushShapeMenu.setMnemonic(KeyEvent.VK_S);
+
+    ButtonGroup group = new ButtonGroup();
+    for (BrushShape shape : BrushShape.values()) {
+      JRadioButtonMenuItem item = new JRadioButtonMenuItem(
+              new BrushShapeAction(shape));
+      item.setSelected(shape == BrushShape.SQUARE);
+      group.add(item);
+      brushShapeMenu.add(item);
+    }
+  }
+
+  public void configureBrushSizeMenu() {
+    brushSizeMenu = new JMenu("Brush Size");
+    brushSizeMenu.setMnemonic(KeyEvent.VK_Z);
+
+    ButtonGroup group = new ButtonGroup();
+    for (int size : BRUSH_SIZES) {
+      JRadioButtonMenuItem item = new JRadioButtonMenuItem(
+              new BrushSizeAction(size));
+      item.setSelected(size == 1);
+      group.add(item);
+      brushSizeMenu.add(item);
+    }
   }
   
 }
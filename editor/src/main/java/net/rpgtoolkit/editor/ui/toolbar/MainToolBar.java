@@ -16,17 +16,22 @@ import net.rpgtoolkit.editor.properties.EditorProperties;
 import net.rpgtoolkit.editor.properties.EditorProperty;
 import net.rpgtoolkit.editor.ui.EditorButton;
 import net.rpgtoolkit.editor.ui.actions.BucketAction;
+import net.rpgtoolkit.editor.ui.actions.CopyAction;
+import net.rpgtoolkit.editor.ui.actions.CutAction;
 import net.rpgtoolkit.editor.ui.actions.EraserAction;
 import net.rpgtoolkit.editor.ui.actions.HelpAction;
 import net.rpgtoolkit.editor.ui.actions.LightAction;
 import net.rpgtoolkit.editor.ui.actions.OpenFileAction;
+import net.rpgtoolkit.editor.ui.actions.PasteAction;
 import net.rpgtoolkit.editor.ui.actions.PencilAction;
+import net.rpgtoolkit.editor.ui.actions.RedoAction;
 import net.rpgtoolkit.editor.ui.actions.RunAction;
 import net.rpgtoolkit.editor.ui.actions.SaveAction;
 import net.rpgtoolkit.editor.ui.actions.SelectionAction;
 import net.rpgtoolkit.editor.ui.actions.SpriteAction;
 import net.rpgtoolkit.editor.ui.actions.StartPositionAction;
 import net.rpgtoolkit.editor.ui.actions.StopAction;
+import net.rpgtoolkit.editor.ui.actions.UndoAction;
 import net.rpgtoolkit.editor.ui.actions.VectorAction;
 import net.rpgtoolkit.editor.ui.actions.ZoomInAction;
 import net.rpgtoolkit.editor.ui.actions.ZoomOutAction;
@@ -107,16 +112,19 @@ public class MainToolBar extends JToolBar {
     saveAllButton.setEnabled(false);
 
     cutButton = new EditorButton();
+    cutButton.setAction(new CutAction());
     cutButton.setIcon(Icons.getSmallIcon("cut"));
     cutButton.setToolTipText(EditorProperties.getProperty(EditorProperty.EDITOR_UI_TOOLTIP_CUT));
     cutButton.setEnabled(false);
 
     copyButton = new EditorButton();
+    copyButton.setAction(new CopyAction());
     copyButton.setIcon(Icons.getSmallIcon("copy"));
     copyButton.setToolTipText(EditorProperties.getProperty(EditorProperty.EDITOR_UI_TOOLTIP_COPY));
     copyButton.setEnabled(false);
 
     pasteButton = new EditorButton();
+    pasteButton.setAction(new PasteAction());
     pasteButton.setIcon(Icons.getSmallIcon("paste"));
     pasteButton.setToolTipText(EditorProperties.getProperty(EditorProperty.EDITOR_UI_TOOLTIP_PASTE));
     pasteButton.setEnabled(false);
@@ -127,11 +135,13 @@ public class MainToolBar extends JToolBar {
     deleteButton.setEnabled(false);
 
     undoButton = new EditorButton();
+    undoButton.setAction(new UndoAction());
     undoButton.setIcon(Icons.getSmallIcon("undo"));
     undoButton.setToolTipText(EditorProperties.getProperty(EditorProperty.EDITOR_UI_TOOLTIP_UNDO));
     undoButton.setEnabled(false);
     
     redoButton = new EditorButton();
+    redoButton.setAction(new RedoAction());
     redoButton.setIcon(Icons.getSmallIcon("redo"));
     redoButton.setToolTipText(EditorProperties.getProperty(EditorProperty.EDITOR_UI_TOOLTIP_REDO));
     redoButton.setEnabled(false);
@@ -354,12 +364,12 @@ public class MainToolBar extends JToolBar {
     openButton.setEnabled(enable);
     saveButton.setEnabled(enable);
 //    saveAllButton.setEnabled(enable);
-//    cutButton.setEnabled(enable);
-//    copyButton.setEnabled(enable);
-//    pasteButton.setEnabled(enable);
+    cutButton.setEnabled(enable);
+    copyButton.setEnabled(enable);
+    pasteButton.setEnabled(enable);
 //    deleteButton.setEnabled(enable);
-//    undoButton.setEnabled(enable);
-//    redoButton.setEnabled(enable);
+    undoButton.setEnabled(enable);
+    redoButton.setEnabled(enable);
     pencilButton.setEnabled(enable);
     selectionButton.setEnabled(enable);
     bucketButton.setEnabled(enable);
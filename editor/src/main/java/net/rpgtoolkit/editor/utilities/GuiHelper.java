@@ -216,9 +216,6 @@ public abstract class GuiHelper {
     public static int[] ensureVectorVisible(Board board, int x1, int y1, int x2, int y2) {
         int width = board.getWidth() * board.getTileWidth();
         int height = board.getHeight() * board.getTileHeight();
-        
-        System.out.println(String.format("%d, %d, %d, %d", x1, y2, x2, y2));
-        System.out.println(String.format("%d, %d", width, height));
 
         if (x1 == width && x2 == width) {
             x1 -= 1;
@@ -9,6 +9,7 @@ package net.rpgtoolkit.editor.utilities;
 
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Rectangle;
 import net.rpgtoolkit.editor.ui.resources.Icons;
 
 /**
@@ -27,4 +28,32 @@ public class TransparentDrawer {
     }
   }
 
+  /**
+   * Draws the transparent background pattern over the clip region only, the
+   * pattern stays aligned to the origin so neighbouring regions line up.
+   *
+   * @param g graphics context to draw on
+   * @param clip region to cover
+   */
+  public static void drawTransparentBackground(Graphics g, Rectangle clip) {
+    Image tileImage = Icons.getIcon("transparent", Icons.Size.LARGE).getImage();
+    int width = tileImage.getWidth(null);
+    int height = tileImage.getHeight(null);
+
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+
+    int startX = clip.x / width * width;
+    int startY = clip.y / height * height;
+    int endX = clip.x + clip.width;
+    int endY = clip.y + clip.height;
+
+    for (int x = startX; x < endX; x += width) {
+      for (int y = startY; y < endY; y += height) {
+        g.drawImage(tileImage, x, y, null);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the packed tile deltas and the history budget of BoardJournal.
+ */
+public class BoardJournalTest {
+
+  public BoardJournalTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() {
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+  }
+
+  @Before
+  public void setUp() {
+  }
+
+  @After
+  public void tearDown() {
+  }
+
+  /**
+   * Test of apply method going forward then backward, of class TileDelta.
+   */
+  @Test
+  public void testRoundTrip() {
+    System.out.println("roundTrip");
+    int[][][] layers = new int[2][8][8];
+    layers[0][3][3] = 5;
+    int[][][] before = copy(layers);
+
+    TileDelta delta = new TileDelta();
+    record(delta, layers, 0, 3, 3, 1);
+    record(delta, layers, 1, 0, 7, 2);
+    // The same cell changed twice within one stroke.
+    record(delta, layers, 0, 3, 3, 4);
+    record(delta, layers, 0, 4, 3, 4);
+    int[][][] after = copy(layers);
+
+    delta.apply(false, (int layer, int x, int y, int index)
+            -> layers[layer][x][y] = index);
+    assertGridEquals(before, layers);
+
+    delta.apply(true, (int layer, int x, int y, int index)
+            -> layers[layer][x][y] = index);
+    assertGridEquals(after, layers);
+    assertEquals(4, layers[0][3][3]);
+  }
+
+  /**
+   * Test of apply method with many random changes, of class TileDelta.
+   */
+  @Test
+  public void testRoundTripRandom() {
+    System.out.println("roundTripRandom");
+    Random random = new Random(11);
+    int[][][] layers = new int[3][16][16];
+    int[][][] before = copy(layers);
+
+    TileDelta delta = new TileDelta();
+    for (int i = 0; i < 1000; i++) {
+      record(delta, layers, random.nextInt(3), random.nextInt(16),
+              random.nextInt(16), random.nextInt(10));
+    }
+    int[][][] after = copy(layers);
+
+    delta.apply(false, (int layer, int x, int y, int index)
+            -> layers[layer][x][y] = index);
+    assertGridEquals(before, layers);
+
+    delta.apply(true, (int layer, int x, int y, int index)
+            -> layers[layer][x][y] = index);
+    assertGridEquals(after, layers);
+  }
+
+  /**
+   * Test of the history budget, of class BoardJournal.
+   */
+  @Test
+  public void testBudget() {
+    System.out.println("budget");
+    BoardJournal journal = new BoardJournal(null, 1024);
+
+    for (int i = 0; i < 10; i++) {
+      journal.beginStroke();
+      journal.recordTile(0, i, 0, null, null);
+      journal.endStroke();
+    }
+
+    // Every stroke starts with room for 16 cells, 256 bytes.
+    assertEquals(4, journal.getUndoCount());
+    assertTrue(journal.getSize() <= 1024);
+
+    // The most recent edit is kept even if it is over the budget on its own.
+    journal.beginStroke();
+    for (int i = 0; i < 300; i++) {
+      journal.recordTile(0, i, 1, null, null);
+    }
+    journal.endStroke();
+
+    assertEquals(1, journal.getUndoCount());
+    assertTrue(journal.canUndo());
+    assertFalse(journal.canRedo());
+
+    journal.clear();
+    assertEquals(0, journal.getUndoCount());
+    assertEquals(0, journal.getSize());
+  }
+
+  /**
+   * Test of strokes not being merged, of class BoardJournal.
+   */
+  @Test
+  public void testSeparateStrokes() {
+    System.out.println("separateStrokes");
+    BoardJournal journal = new BoardJournal(null, 1024 * 1024);
+
+    journal.beginStroke();
+    journal.recordTile(0, 0, 0, null, null);
+    journal.endStroke();
+
+    journal.beginStroke();
+    journal.recordTile(0, 1, 0, null, null);
+    journal.endStroke();
+
+    // An empty stroke is not an edit.
+    journal.beginStroke();
+    journal.endStroke();
+
+    assertEquals(2, journal.getUndoCount());
+  }
+
+  private static void record(TileDelta delta, int[][][] layers, int layer,
+          int x, int y, int index) {
+    delta.add(layer, x, y, layers[layer][x][y], index);
+    layers[layer][x][y] = index;
+  }
+
+  private static int[][][] copy(int[][][] layers) {
+    int[][][] result = new int[layers.length][][];
+    for (int i = 0; i < layers.length; i++) {
+      result[i] = new int[layers[i].length][];
+      for (int x = 0; x < layers[i].length; x++) {
+        result[i][x] = layers[i][x].clone();
+      }
+    }
+
+    return result;
+  }
+
+  private static void assertGridEquals(int[][][] expected, int[][][] actual) {
+    for (int i = 0; i < expected.length; i++) {
+      for (int x = 0; x < expected[i].length; x++) {
+        assertArrayEquals(expected[i][x], actual[i][x]);
+      }
+    }
+  }
+
+}
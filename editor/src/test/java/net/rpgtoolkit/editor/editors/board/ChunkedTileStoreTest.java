@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the copy on write and shared empty chunks of ChunkedTileStore.
+ */
+public class ChunkedTileStoreTest {
+
+  private static final int SIZE = TileStore.CHUNK_SIZE;
+
+  public ChunkedTileStoreTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() {
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+  }
+
+  @Before
+  public void setUp() {
+  }
+
+  @After
+  public void tearDown() {
+  }
+
+  /**
+   * Test of writing to the original after copy, of class ChunkedTileStore.
+   */
+  @Test
+  public void testWriteOriginalAfterCopy() {
+    System.out.println("writeOriginalAfterCopy");
+    ChunkedTileStore store = new ChunkedTileStore(SIZE * 3, SIZE * 2);
+    store.set(1, 1, 7);
+    store.set(SIZE + 2, SIZE + 3, 9);
+
+    ChunkedTileStore copy = store.copy();
+    assertSame(store.getChunk(0, 0), copy.getChunk(0, 0));
+
+    store.set(1, 1, 8);
+    store.set(2, 2, 4);
+
+    assertEquals(8, store.get(1, 1));
+    assertEquals(4, store.get(2, 2));
+    assertEquals(7, copy.get(1, 1));
+    assertEquals(TileCodes.EMPTY, copy.get(2, 2));
+    assertNotSame(store.getChunk(0, 0), copy.getChunk(0, 0));
+
+    // Chunks neither side wrote to are still shared.
+    assertSame(store.getChunk(1, 1), copy.getChunk(1, 1));
+  }
+
+  /**
+   * Test of writing to the copy, of class ChunkedTileStore.
+   */
+  @Test
+  public void testWriteCopy() {
+    System.out.println("writeCopy");
+    ChunkedTileStore store = new ChunkedTileStore(SIZE * 2, SIZE * 2);
+    store.set(3, 3, 5);
+
+    ChunkedTileStore copy = store.copy();
+    copy.set(3, 3, 6);
+    copy.set(SIZE, SIZE, 2);
+
+    assertEquals(5, store.get(3, 3));
+    assertEquals(TileCodes.EMPTY, store.get(SIZE, SIZE));
+    assertTrue(store.isEmptyChunk(1, 1));
+    assertEquals(6, copy.get(3, 3));
+    assertEquals(2, copy.get(SIZE, SIZE));
+
+    // A second copy of a copy is just as independent.
+    ChunkedTileStore second = copy.copy();
+    second.set(3, 3, 1);
+    assertEquals(6, copy.get(3, 3));
+    assertEquals(5, store.get(3, 3));
+  }
+
+  /**
+   * Test of erasing every tile of a chunk, of class ChunkedTileStore.
+   */
+  @Test
+  public void testEraseChunk() {
+    System.out.println("eraseChunk");
+    ChunkedTileStore store = new ChunkedTileStore(SIZE * 2, SIZE);
+    int[] empty = store.getChunk(1, 0);
+
+    store.set(0, 0, 3);
+    store.set(5, 7, 4);
+    assertFalse(store.isEmptyChunk(0, 0));
+    assertEquals(1, store.getAllocatedChunks());
+
+    store.set(0, 0, TileCodes.EMPTY);
+    assertFalse(store.isEmptyChunk(0, 0));
+
+    store.set(5, 7, TileCodes.EMPTY);
+    assertTrue(store.isEmptyChunk(0, 0));
+    assertSame(empty, store.getChunk(0, 0));
+    assertEquals(0, store.getAllocatedChunks());
+
+    // Writing to it again must not write to the shared empty chunk.
+    store.set(2, 2, 8);
+    assertEquals(8, store.get(2, 2));
+    assertEquals(TileCodes.EMPTY, store.get(SIZE + 2, 2));
+    assertTrue(store.isEmptyChunk(1, 0));
+  }
+
+  /**
+   * Test of erasing a shared chunk in a copy, of class ChunkedTileStore.
+   */
+  @Test
+  public void testEraseSharedChunk() {
+    System.out.println("eraseSharedChunk");
+    ChunkedTileStore store = new ChunkedTileStore(SIZE, SIZE);
+    store.set(4, 4, 2);
+
+    ChunkedTileStore copy = store.copy();
+    copy.set(4, 4, TileCodes.EMPTY);
+
+    assertTrue(copy.isEmptyChunk(0, 0));
+    assertEquals(0, copy.getAllocatedChunks());
+    assertEquals(2, store.get(4, 4));
+    assertFalse(store.isEmptyChunk(0, 0));
+  }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class FloodFillTest {
+
+  public FloodFillTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() {
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+  }
+
+  @Before
+  public void setUp() {
+  }
+
+  @After
+  public void tearDown() {
+  }
+
+  /**
+   * Test of fill method, of class FloodFill.
+   */
+  @Test
+  public void testFill() {
+    System.out.println("fill");
+    int[][] grid = parse(
+            "..#..",
+            "..#..",
+            "###..",
+            ".....");
+
+    Rectangle result = FloodFill.fill(new Rectangle(0, 0, 5, 4), 0, 0,
+            false, new GridCells(grid, '.', 'o'));
+
+    assertEquals(new Rectangle(0, 0, 2, 2), result);
+    assertEquals(4, count(grid, 'o'));
+  }
+
+  /**
+   * Test of fill method with diagonal neighbours, of class FloodFill.
+   */
+  @Test
+  public void testFillDiagonal() {
+    System.out.println("fillDiagonal");
+    int[][] grid = parse(
+            "..#..",
+            "..#..",
+            "##...",
+            ".....");
+
+    Rectangle result = FloodFill.fill(new Rectangle(0, 0, 5, 4), 0, 0,
+            true, new GridCells(grid, '.', 'o'));
+
+    assertEquals(new Rectangle(0, 0, 5, 4), result);
+    assertEquals(16, count(grid, 'o'));
+  }
+
+  /**
+   * Test of fill method clipped to a selection, of class FloodFill.
+   */
+  @Test
+  public void testFillClipped() {
+    System.out.println("fillClipped");
+    int[][] grid = parse(
+            ".....",
+            ".....",
+            ".....");
+
+    Rectangle selection = new Rectangle(1, 1, 3, 2);
+    Rectangle result = FloodFill.fill(selection, 2, 1, false,
+            new GridCells(grid, '.', 'o'));
+
+    assertEquals(selection, result);
+    assertEquals(6, count(grid, 'o'));
+    assertNull(FloodFill.fill(selection, 0, 0, false,
+            new GridCells(grid, '.', 'o')));
+  }
+
+  /**
+   * Test of fill method on a large grid, of class FloodFill.
+   */
+  @Test
+  public void testFillLarge() {
+    System.out.println("fillLarge");
+    int size = 2000;
+    int[][] grid = new int[size][size];
+
+    Rectangle result = FloodFill.fill(new Rectangle(0, 0, size, size),
+            size / 2, size / 2, false, new GridCells(grid, 0, 1));
+
+    assertEquals(new Rectangle(0, 0, size, size), result);
+    assertEquals(size * size, count(grid, 1));
+  }
+
+  /**
+   * Test of replaceAll method, of class FloodFill.
+   */
+  @Test
+  public void testReplaceAll() {
+    System.out.println("replaceAll");
+    int[][] grid = parse(
+            ".#...",
+            "##.#.",
+            "...#.");
+
+    Rectangle result = FloodFill.replaceAll(new Rectangle(0, 0, 5, 3),
+            new GridCells(grid, '#', 'o'));
+
+    assertEquals(new Rectangle(0, 0, 4, 3), result);
+    assertEquals(5, count(grid, 'o'));
+  }
+
+  private static int[][] parse(String... rows) {
+    int[][] grid = new int[rows[0].length()][rows.length];
+
+    for (int y = 0; y < rows.length; y++) {
+      for (int x = 0; x < rows[y].length(); x++) {
+        grid[x][y] = rows[y].charAt(x);
+      }
+    }
+
+    return grid;
+  }
+
+  private static int count(int[][] grid, int value) {
+    int count = 0;
+
+    for (int[] column : grid) {
+      for (int cell : column) {
+        if (cell == value) {
+          count++;
+        }
+      }
+    }
+
+    return count;
+  }
+
+  private static final class GridCells implements FloodFill.Cells {
+
+    private final int[][] grid;
+    private final int from;
+    private final int to;
+
+    private GridCells(int[][] grid, int from, int to) {
+      this.grid = grid;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean matches(int x, int y) {
+      return grid[x][y] == from;
+    }
+
+    @Override
+    public void fill(int x, int y) {
+      grid[x][y] = to;
+    }
+
+  }
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SpatialGridTest {
+
+  public SpatialGridTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() {
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+  }
+
+  @Before
+  public void setUp() {
+  }
+
+  @After
+  public void tearDown() {
+  }
+
+  /**
+   * Test of query method, of class SpatialGrid.
+   */
+  @Test
+  public void testQuery() {
+    System.out.println("query");
+    SpatialGrid<String> grid = new SpatialGrid<>(32);
+    grid.put("small", new Rectangle(10, 10, 5, 5));
+    grid.put("large", new Rectangle(0, 0, 200, 200));
+    grid.put("negative", new Rectangle(-50, -50, 10, 10));
+
+    List<String> result = new ArrayList<>();
+    grid.query(new Rectangle(0, 0, 100, 100), result);
+
+    // The large rectangle covers many cells but is only reported once.
+    assertEquals(2, result.size());
+    assertTrue(result.contains("small"));
+    assertTrue(result.contains("large"));
+
+    result.clear();
+    grid.query(new Rectangle(-45, -45, 1, 1), result);
+    assertEquals(1, result.size());
+    assertTrue(result.contains("negative"));
+  }
+
+  /**
+   * Test of put method when moving an object, of class SpatialGrid.
+   */
+  @Test
+  public void testMove() {
+    System.out.println("move");
+    SpatialGrid<String> grid = new SpatialGrid<>(32);
+    grid.put("sprite", new Rectangle(10, 10, 5, 5));
+    grid.put("sprite", new Rectangle(500, 500, 5, 5));
+
+    assertEquals(1, grid.size());
+    assertTrue(grid.query(12, 12, 0).isEmpty());
+    assertEquals(1, grid.query(502, 502, 0).size());
+  }
+
+  /**
+   * Test of remove method, of class SpatialGrid.
+   */
+  @Test
+  public void testRemove() {
+    System.out.println("remove");
+    SpatialGrid<String> grid = new SpatialGrid<>(32);
+    grid.put("vector", new Rectangle(0, 0, 100, 5));
+
+    assertTrue(grid.remove("vector"));
+    assertFalse(grid.remove("vector"));
+    assertEquals(0, grid.size());
+    assertTrue(grid.query(50, 2, 0).isEmpty());
+  }
+
+  /**
+   * Test of query method against a linear scan, of class SpatialGrid.
+   */
+  @Test
+  public void testQueryRandom() {
+    System.out.println("queryRandom");
+    Random random = new Random(7);
+    SpatialGrid<Integer> grid = new SpatialGrid<>(64);
+    List<Rectangle> bounds = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      Rectangle rectangle = new Rectangle(random.nextInt(4000) - 500,
+              random.nextInt(4000) - 500, 1 + random.nextInt(300),
+              1 + random.nextInt(300));
+      bounds.add(rectangle);
+      grid.put(i, rectangle);
+    }
+
+    for (int i = 0; i < 200; i++) {
+      Rectangle region = new Rectangle(random.nextInt(4000) - 500,
+              random.nextInt(4000) - 500, 1 + random.nextInt(800),
+              1 + random.nextInt(800));
+
+      List<Integer> result = new ArrayList<>();
+      grid.query(region, result);
+
+      int expected = 0;
+      for (int j = 0; j < bounds.size(); j++) {
+        if (bounds.get(j).intersects(region)) {
+          expected++;
+          assertTrue(result.contains(j));
+        }
+      }
+
+      assertEquals(expected, result.size());
+    }
+  }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2015, rpgtoolkit.net <help@rpgtoolkit.net>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package net.rpgtoolkit.editor.editors.board;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the flips and rotation of TileBlock.
+ */
+public class TileBlockTest {
+
+  public TileBlockTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() {
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+  }
+
+  @Before
+  public void setUp() {
+  }
+
+  @After
+  public void tearDown() {
+  }
+
+  /**
+   * Test of flipHorizontal method, of class TileBlock.
+   */
+  @Test
+  public void testFlipHorizontal() {
+    System.out.println("flipHorizontal");
+    TileBlock block = createBlock(3, 2);
+
+    block.flipHorizontal();
+
+    assertRows(block, new int[][]{
+      {3, 2, 1},
+      {6, 5, 4}});
+  }
+
+  /**
+   * Test of flipVertical method, of class TileBlock.
+   */
+  @Test
+  public void testFlipVertical() {
+    System.out.println("flipVertical");
+    TileBlock block = createBlock(2, 3);
+
+    block.flipVertical();
+
+    assertRows(block, new int[][]{
+      {5, 6},
+      {3, 4},
+      {1, 2}});
+  }
+
+  /**
+   * Test of rotate method, of class TileBlock.
+   */
+  @Test
+  public void testRotate() {
+    System.out.println("rotate");
+    TileBlock block = createBlock(3, 2);
+
+    TileBlock rotated = block.rotate();
+
+    assertEquals(2, rotated.getWidth());
+    assertEquals(3, rotated.getHeight());
+    assertRows(rotated, new int[][]{
+      {4, 1},
+      {5, 2},
+      {6, 3}});
+
+    // The original is left as it was.
+    assertEquals(1, block.get(0, 0));
+  }
+
+  /**
+   * Test of rotate method turned a full circle, of class TileBlock.
+   */
+  @Test
+  public void testRotateFullCircle() {
+    System.out.println("rotateFullCircle");
+    TileBlock block = createBlock(4, 3);
+
+    TileBlock rotated = block.rotate().rotate().rotate().rotate();
+
+    assertEquals(4, rotated.getWidth());
+    assertEquals(3, rotated.getHeight());
+    for (int y = 0; y < 3; y++) {
+      for (int x = 0; x < 4; x++) {
+        assertEquals(block.get(x, y), rotated.get(x, y));
+      }
+    }
+
+    // Two quarter turns are the same as flipping both ways.
+    TileBlock half = block.rotate().rotate();
+    block.flipHorizontal();
+    block.flipVertical();
+    for (int y = 0; y < 3; y++) {
+      for (int x = 0; x < 4; x++) {
+        assertEquals(block.get(x, y), half.get(x, y));
+      }
+    }
+  }
+
+  private static TileBlock createBlock(int width, int height) {
+    TileBlock block = new TileBlock(width, height);
+
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        block.set(x, y, y * width + x + 1);
+      }
+    }
+
+    return block;
+  }
+
+  private static void assertRows(TileBlock block, int[][] rows) {
+    assertEquals(rows.length, block.getHeight());
+
+    for (int y = 0; y < rows.length; y++) {
+      assertEquals(rows[y].length, block.getWidth());
+
+      for (int x = 0; x < rows[y].length; x++) {
+        assertEquals(rows[y][x], block.get(x, y));
+      }
+    }
+  }
+
+}